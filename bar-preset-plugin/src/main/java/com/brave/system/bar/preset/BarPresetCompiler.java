@@ -0,0 +1,266 @@
+package com.brave.system.bar.preset;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 22:30
+ *     <b>desc</b>      ：<pre>
+ *         系统栏预设编译器，
+ *         把声明式的预设文件编译成Java常量类（打包后的标记位与已计算透明度的颜色），
+ *         运行时通过BarUtils.applyPreset直接应用，不需要解析、转换与透明度浮点计算
+ *
+ *         预设文件格式（properties，每个预设以名称为前缀）：
+ *         home.bars=status,nav            系统栏：status、nav
+ *         home.color=#2196F3              颜色：#RRGGBB、#AARRGGBB（alpha部分会被替换）
+ *         home.alpha=255                  透明度：[0,255]或[0.0,1.0]，默认255
+ *         home.icon=dark                  状态栏图标：light、dark、auto（根据不透明颜色计算），默认light
+ *         home.navIcon=dark               虚拟按键栏图标：light、dark、auto，默认light
+ *         home.fit=true                   系统栏占位，默认true
+ *         home.clip=true                  子View不能展示在Padding区域，默认true
+ *         home.preventShaking=true        防止抖动，默认true
+ *     </pre>
+ * </pre>
+ */
+final class BarPresetCompiler {
+    // 标记位，必须与library中的BarState一致
+    static final int STATUS_BAR = 1;
+    static final int NAV_BAR = 1 << 1;
+    static final int PREVENT_SHAKING = 1 << 2;
+    static final int STATUS_BLACK = 1 << 3;
+    static final int NAV_BLACK = 1 << 4;
+    static final int FIT_SYSTEM_WINDOWS = 1 << 5;
+    static final int CLIP_TO_PADDING = 1 << 6;
+
+    // 黑色与白色对比度相等时的相对亮度阈值，必须与library中的LuminanceCache一致
+    private static final float DARK_ICON_THRESHOLD = 0.179f;
+
+    private BarPresetCompiler() {
+    }
+
+    /**
+     * 编译后的预设
+     */
+    static final class Preset {
+        final String name;
+        final int flags;
+        final int color;
+
+        Preset(String name, int flags, int color) {
+            this.name = name;
+            this.flags = flags;
+            this.color = color;
+        }
+    }
+
+    /**
+     * 编译预设文件
+     *
+     * @throws IllegalArgumentException 预设文件有错误
+     */
+    static List<Preset> compile(Properties properties) {
+        Set<String> names = new TreeSet<>();
+        for (String key : properties.stringPropertyNames()) {
+            int dot = key.indexOf('.');
+            if (dot <= 0) {
+                throw new IllegalArgumentException("Invalid key '" + key + "', expected <preset>.<attribute>");
+            }
+            names.add(key.substring(0, dot));
+        }
+        List<Preset> presets = new ArrayList<>();
+        for (String name : names) {
+            presets.add(compile(name, properties));
+        }
+        return Collections.unmodifiableList(presets);
+    }
+
+    /**
+     * 编译一个预设
+     */
+    private static Preset compile(String name, Properties properties) {
+        String prefix = name + ".";
+        for (String key : properties.stringPropertyNames()) {
+            if (!key.startsWith(prefix)) {
+                continue;
+            }
+            String attribute = key.substring(prefix.length());
+            if (!"bars".equals(attribute) && !"color".equals(attribute) && !"alpha".equals(attribute)
+                    && !"icon".equals(attribute) && !"navIcon".equals(attribute) && !"fit".equals(attribute)
+                    && !"clip".equals(attribute) && !"preventShaking".equals(attribute)) {
+                throw new IllegalArgumentException("Unknown attribute '" + key + "'");
+            }
+        }
+        // 系统栏
+        int flags = 0;
+        String bars = properties.getProperty(prefix + "bars", "status,nav");
+        for (String bar : bars.split(",")) {
+            bar = bar.trim();
+            if ("status".equals(bar)) {
+                flags |= STATUS_BAR;
+            } else if ("nav".equals(bar)) {
+                flags |= NAV_BAR;
+            } else {
+                throw new IllegalArgumentException(prefix + "bars: unknown bar '" + bar + "'");
+            }
+        }
+        // 颜色
+        String colorValue = properties.getProperty(prefix + "color");
+        if (null == colorValue) {
+            throw new IllegalArgumentException(prefix + "color is required");
+        }
+        int rgb = parseColor(prefix + "color", colorValue.trim()) & 0xffffff;
+        int alpha = parseAlpha(prefix + "alpha", properties.getProperty(prefix + "alpha", "255").trim());
+        int color = alpha << 24 | rgb;
+        // 图标
+        if (isDark(prefix + "icon", properties.getProperty(prefix + "icon", "light").trim(), color)) {
+            flags |= STATUS_BLACK;
+        }
+        if (isDark(prefix + "navIcon", properties.getProperty(prefix + "navIcon", "light").trim(), color)) {
+            flags |= NAV_BLACK;
+        }
+        // 根布局参数
+        if (parseBoolean(prefix + "fit", properties.getProperty(prefix + "fit", "true"))) {
+            flags |= FIT_SYSTEM_WINDOWS;
+        }
+        if (parseBoolean(prefix + "clip", properties.getProperty(prefix + "clip", "true"))) {
+            flags |= CLIP_TO_PADDING;
+        }
+        if (parseBoolean(prefix + "preventShaking", properties.getProperty(prefix + "preventShaking", "true"))) {
+            flags |= PREVENT_SHAKING;
+        }
+        return new Preset(name, flags, color);
+    }
+
+    /**
+     * 生成Java源码
+     */
+    static String generate(String packageName, String className, List<Preset> presets) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("// Generated by com.brave.system.bar.preset. Do not edit.\n");
+        builder.append("package ").append(packageName).append(";\n\n");
+        builder.append("public final class ").append(className).append(" {\n");
+        for (Preset preset : presets) {
+            String constant = toConstantName(preset.name);
+            builder.append(String.format(Locale.US,
+                    "    public static final int %s_FLAGS = 0x%02x;\n", constant, preset.flags));
+            builder.append(String.format(Locale.US,
+                    "    public static final int %s_COLOR = 0x%08x;\n", constant, preset.color));
+        }
+        builder.append("\n    private ").append(className).append("() {\n    }\n}\n");
+        return builder.toString();
+    }
+
+    private static int parseColor(String key, String value) {
+        String hex;
+        if (value.startsWith("#")) {
+            hex = value.substring(1);
+        } else if (value.startsWith("0x") || value.startsWith("0X")) {
+            hex = value.substring(2);
+        } else {
+            throw new IllegalArgumentException(key + ": expected #RRGGBB or #AARRGGBB, was '" + value + "'");
+        }
+        if (hex.length() != 6 && hex.length() != 8) {
+            throw new IllegalArgumentException(key + ": expected #RRGGBB or #AARRGGBB, was '" + value + "'");
+        }
+        try {
+            return (int) Long.parseLong(hex, 16);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + ": invalid color '" + value + "'");
+        }
+    }
+
+    /**
+     * 透明度：整数为[0,255]，小数为[0.0,1.0]（与运行时的float重载计算方式相同）
+     */
+    private static int parseAlpha(String key, String value) {
+        try {
+            int alpha;
+            if (value.indexOf('.') >= 0) {
+                float fraction = Float.parseFloat(value);
+                if (fraction < 0 || fraction > 1) {
+                    throw new IllegalArgumentException(key + ": expected [0.0,1.0], was '" + value + "'");
+                }
+                alpha = (int) (fraction * 255);
+            } else {
+                alpha = Integer.parseInt(value);
+            }
+            if (alpha < 0 || alpha > 255) {
+                throw new IllegalArgumentException(key + ": expected [0,255], was '" + value + "'");
+            }
+            return alpha;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + ": invalid alpha '" + value + "'");
+        }
+    }
+
+    private static boolean isDark(String key, String value, int color) {
+        if ("light".equals(value)) {
+            return false;
+        }
+        if ("dark".equals(value)) {
+            return true;
+        }
+        if ("auto".equals(value)) {
+            if ((color >>> 24) != 0xff) {
+                throw new IllegalArgumentException(key + ": auto requires an opaque color (alpha 255)");
+            }
+            return luminance(color) > DARK_ICON_THRESHOLD;
+        }
+        throw new IllegalArgumentException(key + ": expected light, dark or auto, was '" + value + "'");
+    }
+
+    private static boolean parseBoolean(String key, String value) {
+        value = value.trim();
+        if ("true".equals(value)) {
+            return true;
+        }
+        if ("false".equals(value)) {
+            return false;
+        }
+        throw new IllegalArgumentException(key + ": expected true or false, was '" + value + "'");
+    }
+
+    /**
+     * 相对亮度（与library中的LuminanceCache计算方式相同，使用float保证结果一致）
+     */
+    private static float luminance(int color) {
+        return 0.2126f * linear(color >> 16 & 0xff)
+                + 0.7152f * linear(color >> 8 & 0xff)
+                + 0.0722f * linear(color & 0xff);
+    }
+
+    private static float linear(int channel) {
+        float c = channel / 255f;
+        return c <= 0.03928f ? c / 12.92f : (float) Math.pow((c + 0.055f) / 1.055f, 2.4f);
+    }
+
+    /**
+     * 预设名称转为常量名：homeDark、home-dark -> HOME_DARK
+     */
+    private static String toConstantName(String name) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c) && i > 0 && Character.isLowerCase(name.charAt(i - 1))) {
+                builder.append('_');
+            }
+            if (Character.isLetterOrDigit(c)) {
+                builder.append(Character.toUpperCase(c));
+            } else {
+                builder.append('_');
+            }
+        }
+        if (builder.length() == 0 || Character.isDigit(builder.charAt(0))) {
+            builder.insert(0, '_');
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,49 @@
+package com.brave.system.bar.preset;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 22:30
+ *     <b>desc</b>      ：<pre>
+ *         系统栏预设配置：
+ *         barPresets {
+ *             file = 'src/main/bar-presets.properties'
+ *             packageName = 'com.example.app'
+ *             className = 'BarPresets'
+ *         }
+ *     </pre>
+ * </pre>
+ */
+public class BarPresetExtension {
+    // 预设文件（相对于模块目录）
+    private Object file = "src/main/bar-presets.properties";
+    // 生成类的包名
+    private String packageName = "com.brave.system.bar.preset";
+    // 生成类的类名
+    private String className = "BarPresets";
+
+    public Object getFile() {
+        return file;
+    }
+
+    public void setFile(Object file) {
+        this.file = file;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public void setPackageName(String packageName) {
+        this.packageName = packageName;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public void setClassName(String className) {
+        this.className = className;
+    }
+}
@@ -0,0 +1,83 @@
+package com.brave.system.bar.preset;
+
+import com.android.build.gradle.AppExtension;
+import com.android.build.gradle.LibraryExtension;
+import com.android.build.gradle.api.BaseVariant;
+
+import org.gradle.api.Action;
+import org.gradle.api.DomainObjectSet;
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+import org.gradle.api.plugins.AppliedPlugin;
+
+import java.io.File;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 22:30
+ *     <b>desc</b>      ：<pre>
+ *         系统栏预设插件，
+ *         构建时把预设文件编译成Java常量类并加入每个变体的源码，
+ *         运行时通过BarUtils.applyPreset(window, rootView, FLAGS, COLOR)应用
+ *
+ *         apply plugin: 'com.brave.system.bar.preset'
+ *     </pre>
+ * </pre>
+ */
+public class BarPresetPlugin implements Plugin<Project> {
+    // 任务名
+    static final String TASK_NAME = "generateBarPresets";
+
+    @Override
+    public void apply(final Project project) {
+        final BarPresetExtension extension = project.getExtensions()
+                .create("barPresets", BarPresetExtension.class);
+        final File outputDir = new File(project.getBuildDir(), "generated/source/barPresets");
+        final GenerateBarPresetsTask task = project.getTasks()
+                .create(TASK_NAME, GenerateBarPresetsTask.class);
+        task.setGroup("build");
+        task.setDescription("Compiles bar presets into packed flag and color constants.");
+        task.setOutputDir(outputDir);
+        // 配置完成后再读取扩展的值
+        project.afterEvaluate(new Action<Project>() {
+            @Override
+            public void execute(Project p) {
+                task.setPresetFile(p.file(extension.getFile()));
+                task.setPackageName(extension.getPackageName());
+                task.setClassName(extension.getClassName());
+            }
+        });
+        // Android应用模块
+        project.getPluginManager().withPlugin("com.android.application", new Action<AppliedPlugin>() {
+            @Override
+            public void execute(AppliedPlugin plugin) {
+                AppExtension android = project.getExtensions().getByType(AppExtension.class);
+                register(android.getApplicationVariants(), task, outputDir);
+            }
+        });
+        // Android库模块
+        project.getPluginManager().withPlugin("com.android.library", new Action<AppliedPlugin>() {
+            @Override
+            public void execute(AppliedPlugin plugin) {
+                LibraryExtension android = project.getExtensions().getByType(LibraryExtension.class);
+                register(android.getLibraryVariants(), task, outputDir);
+            }
+        });
+    }
+
+    /**
+     * 把生成的源码加入每个变体
+     */
+    private static <V extends BaseVariant> void register(DomainObjectSet<V> variants,
+                                                         final GenerateBarPresetsTask task,
+                                                         final File outputDir) {
+        variants.all(new Action<V>() {
+            @Override
+            public void execute(V variant) {
+                variant.registerJavaGeneratingTask(task, outputDir);
+            }
+        });
+    }
+}
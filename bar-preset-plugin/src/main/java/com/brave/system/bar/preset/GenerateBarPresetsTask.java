@@ -0,0 +1,109 @@
+package com.brave.system.bar.preset;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 22:30
+ *     <b>desc</b>      ：<pre>
+ *         编译系统栏预设文件，生成Java常量类，
+ *         预设文件有错误时构建失败
+ *     </pre>
+ * </pre>
+ */
+public class GenerateBarPresetsTask extends DefaultTask {
+    // 预设文件
+    private File presetFile;
+    // 生成类的包名
+    private String packageName;
+    // 生成类的类名
+    private String className;
+    // 输出目录
+    private File outputDir;
+
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public File getPresetFile() {
+        return presetFile;
+    }
+
+    public void setPresetFile(File presetFile) {
+        this.presetFile = presetFile;
+    }
+
+    @Input
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public void setPackageName(String packageName) {
+        this.packageName = packageName;
+    }
+
+    @Input
+    public String getClassName() {
+        return className;
+    }
+
+    public void setClassName(String className) {
+        this.className = className;
+    }
+
+    @OutputDirectory
+    public File getOutputDir() {
+        return outputDir;
+    }
+
+    public void setOutputDir(File outputDir) {
+        this.outputDir = outputDir;
+    }
+
+    @TaskAction
+    public void generate() throws IOException {
+        // 读取预设文件
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(presetFile);
+             Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        // 编译
+        List<BarPresetCompiler.Preset> presets;
+        try {
+            presets = BarPresetCompiler.compile(properties);
+        } catch (IllegalArgumentException e) {
+            throw new GradleException(presetFile + ": " + e.getMessage(), e);
+        }
+        // 写入Java源码
+        File dir = new File(outputDir, packageName.replace('.', File.separatorChar));
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Unable to create " + dir);
+        }
+        File file = new File(dir, className + ".java");
+        try (Writer writer = new OutputStreamWriter(
+                new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(BarPresetCompiler.generate(packageName, className, presets));
+        }
+    }
+}
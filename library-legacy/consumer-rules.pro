@@ -0,0 +1,4 @@
+# 核心库通过反射创建Android 4.4系统栏代理
+-keep class com.brave.system.bar.legacy.KitKatBarDelegate {
+    public <init>();
+}
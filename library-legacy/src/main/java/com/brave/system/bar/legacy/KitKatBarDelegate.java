@@ -0,0 +1,64 @@
+package com.brave.system.bar.legacy;
+
+import android.view.Gravity;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.Window;
+import android.widget.FrameLayout;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+import com.brave.system.bar.library.LegacyBarDelegate;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 19:10
+ *     <b>desc</b>      ：<pre>
+ *         Android 4.4系统栏代理，
+ *         在装饰布局中添加与系统栏同高的View来显示系统栏颜色，
+ *         由核心库在Android 4.4上通过反射创建
+ *     </pre>
+ * </pre>
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public final class KitKatBarDelegate implements LegacyBarDelegate {
+    // 状态栏Tag
+    private static final String STATUS_BAR_TAG = "COM_BRAVE_SYSTEM_BAR_LIBRARY_STATUS_BAR";
+    // 虚拟按键栏Tag
+    private static final String NAV_BAR_TAG = "COM_BRAVE_SYSTEM_BAR_LIBRARY_NAV_BAR";
+
+    public KitKatBarDelegate() {
+    }
+
+    @NonNull
+    @Override
+    public View getBar(@NonNull Window window, boolean isStatusBar, int barHeight) {
+        // 获取装饰布局
+        ViewGroup decorView = (ViewGroup) window.getDecorView();
+        // 获取Bar View Tag
+        String tag = isStatusBar ? STATUS_BAR_TAG : NAV_BAR_TAG;
+        // 根据Tag获取Bar View
+        View bar = decorView.findViewWithTag(tag);
+        // Bar View为空
+        if (null == bar) {
+            // 创建一个新的Bar View
+            bar = new View(window.getContext());
+            // 创建一个新的布局属性，并把Bar高度赋值给它
+            FrameLayout.LayoutParams params = new FrameLayout.LayoutParams(
+                    FrameLayout.LayoutParams.MATCH_PARENT, barHeight);
+            // 设置布局位置居于顶部
+            params.gravity = Gravity.TOP;
+            // 把布局属性赋值给Bar View
+            bar.setLayoutParams(params);
+            // 设置Bar View Tag
+            bar.setTag(tag);
+            // 把Bar View添加到装饰布局
+            decorView.addView(bar);
+        }
+        // Bar View
+        return bar;
+    }
+}
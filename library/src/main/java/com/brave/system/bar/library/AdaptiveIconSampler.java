@@ -0,0 +1,295 @@
+package com.brave.system.bar.library;
+
+import android.annotation.TargetApi;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.PixelCopy;
+import android.view.View;
+import android.view.ViewTreeObserver;
+import android.view.Window;
+
+import androidx.annotation.NonNull;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 11:05
+ *     <b>desc</b>      ：<pre>
+ *         状态栏图标自适应采样器，
+ *         把状态栏背后的内容缩小采样到一张复用的小图中，
+ *         在后台线程计算平均亮度，按滞后阈值切换窗口系统栏状态中的状态栏深色图标，
+ *         通过{@link BarEngine#applyState}应用，其他重新应用状态的操作不会还原采样结果，
+ *         只在滚动或布局变化时采样，并限制采样频率
+ *     </pre>
+ * </pre>
+ */
+final class AdaptiveIconSampler implements ViewTreeObserver.OnScrollChangedListener,
+        ViewTreeObserver.OnGlobalLayoutListener, Runnable {
+    // 采样图宽度
+    private static final int SAMPLE_WIDTH = 24;
+    // 采样图高度
+    private static final int SAMPLE_HEIGHT = 3;
+    // 两次采样的最小间隔（毫秒）
+    private static final long MIN_INTERVAL_MS = 200;
+    // 平均亮度高于该值时切换为深色图标
+    private static final float DARK_THRESHOLD = 0.25f;
+    // 平均亮度低于该值时切换为浅色图标
+    private static final float LIGHT_THRESHOLD = 0.12f;
+    // 后台计算线程（所有采样器共用）
+    private static Handler sWorker;
+
+    // 窗口
+    private final WeakReference<Window> mWindow;
+    // 主线程
+    private final Handler mMain = new Handler(Looper.getMainLooper());
+    // 复用的采样图
+    private final Bitmap mBitmap = Bitmap.createBitmap(SAMPLE_WIDTH, SAMPLE_HEIGHT, Bitmap.Config.ARGB_8888);
+    // 复用的像素数组（只在后台线程使用）
+    private final int[] mPixels = new int[SAMPLE_WIDTH * SAMPLE_HEIGHT];
+    // 复用的采样区域
+    private final Rect mSource = new Rect();
+    // 复用的缩小绘制画布（Android 8.0 以下使用）
+    private Canvas mCanvas;
+    // 已安排采样或采样进行中
+    private boolean mPending;
+    // 上次采样时间
+    private long mLastSampleTime;
+    // 正在应用采样结果
+    private boolean mApplying;
+    // 是否已停止
+    private boolean mStopped;
+
+    AdaptiveIconSampler(@NonNull Window window) {
+        mWindow = new WeakReference<>(window);
+    }
+
+    /**
+     * 开始监听滚动与布局变化
+     */
+    void start() {
+        Window window = mWindow.get();
+        if (null == window) {
+            return;
+        }
+        ViewTreeObserver observer = window.getDecorView().getViewTreeObserver();
+        observer.addOnScrollChangedListener(this);
+        observer.addOnGlobalLayoutListener(this);
+        schedule();
+    }
+
+    /**
+     * 停止采样
+     */
+    void stop() {
+        mStopped = true;
+        mMain.removeCallbacks(this);
+        Window window = mWindow.get();
+        if (null == window) {
+            return;
+        }
+        ViewTreeObserver observer = window.getDecorView().getViewTreeObserver();
+        if (observer.isAlive()) {
+            observer.removeOnScrollChangedListener(this);
+            observer.removeGlobalOnLayoutListener(this);
+        }
+    }
+
+    /**
+     * 窗口系统栏状态被重新应用（主题切换、日间/夜间切换、守护等），重新采样
+     */
+    void onStateApplied() {
+        if (!mApplying) {
+            schedule();
+        }
+    }
+
+    @Override
+    public void onScrollChanged() {
+        schedule();
+    }
+
+    @Override
+    public void onGlobalLayout() {
+        schedule();
+    }
+
+    /**
+     * 安排一次采样（同一时间最多一次，且两次采样间隔不小于{@link #MIN_INTERVAL_MS}）
+     */
+    private void schedule() {
+        if (mPending || mStopped) {
+            return;
+        }
+        mPending = true;
+        long delay = mLastSampleTime + MIN_INTERVAL_MS - SystemClock.uptimeMillis();
+        mMain.postDelayed(this, Math.max(0, delay));
+    }
+
+    /**
+     * 采样（主线程）
+     */
+    @Override
+    public void run() {
+        Window window = mWindow.get();
+        if (null == window || mStopped) {
+            mPending = false;
+            return;
+        }
+        mLastSampleTime = SystemClock.uptimeMillis();
+        View decorView = window.getDecorView();
+        int width = decorView.getWidth();
+        int height = BarMetrics.getTopInset(window);
+        if (width <= 0 || height <= 0) {
+            mPending = false;
+            return;
+        }
+        mSource.set(0, 0, width, height);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            requestPixelCopy(window);
+        } else {
+            drawIntoBitmap(decorView, width, height);
+            getWorker().post(mCompute);
+        }
+    }
+
+    /**
+     * 使用PixelCopy把状态栏区域缩小复制到采样图中
+     */
+    @TargetApi(Build.VERSION_CODES.O)
+    private void requestPixelCopy(@NonNull Window window) {
+        try {
+            PixelCopy.request(window, mSource, mBitmap, new PixelCopy.OnPixelCopyFinishedListener() {
+                @Override
+                public void onPixelCopyFinished(int copyResult) {
+                    if (copyResult == PixelCopy.SUCCESS) {
+                        mCompute.run();
+                    } else {
+                        mMain.post(mFinish);
+                    }
+                }
+            }, getWorker());
+        } catch (IllegalArgumentException e) {
+            // 窗口还没有Surface
+            mPending = false;
+        }
+    }
+
+    /**
+     * 把装饰布局缩小绘制到采样图中（Android 8.0 以下）
+     */
+    private void drawIntoBitmap(@NonNull View decorView, int width, int height) {
+        if (null == mCanvas) {
+            mCanvas = new Canvas(mBitmap);
+        }
+        int save = mCanvas.save();
+        mCanvas.scale((float) SAMPLE_WIDTH / width, (float) SAMPLE_HEIGHT / height);
+        // 只绘制状态栏区域，区域外的子View直接跳过
+        mCanvas.clipRect(0, 0, width, height);
+        decorView.draw(mCanvas);
+        mCanvas.restoreToCount(save);
+    }
+
+    // 计算平均亮度（后台线程）
+    private final Runnable mCompute = new Runnable() {
+        @Override
+        public void run() {
+            mBitmap.getPixels(mPixels, 0, SAMPLE_WIDTH, 0, 0, SAMPLE_WIDTH, SAMPLE_HEIGHT);
+            float sum = 0;
+            for (int pixel : mPixels) {
+                sum += LuminanceCache.compute(pixel);
+            }
+            final float average = sum / mPixels.length;
+            mMain.post(new Runnable() {
+                @Override
+                public void run() {
+                    apply(average);
+                    mFinish.run();
+                }
+            });
+        }
+    };
+
+    // 采样结束（主线程）
+    private final Runnable mFinish = new Runnable() {
+        @Override
+        public void run() {
+            mPending = false;
+        }
+    };
+
+    /**
+     * 按滞后阈值切换状态栏图标（主线程），
+     * 修改窗口系统栏状态（以及等待应用的状态）中的深色图标标记后应用
+     *
+     * @param luminance 平均亮度
+     */
+    private void apply(float luminance) {
+        Window window = mWindow.get();
+        if (null == window || mStopped) {
+            return;
+        }
+        WindowRegistry.Entry entry = WindowRegistry.peek(window);
+        // 还没有设置系统栏状态
+        if (null == entry || entry.state.isEmpty()) {
+            return;
+        }
+        BarState state = entry.state;
+        boolean current = state.has(BarState.STATUS_BLACK);
+        boolean dark = current ? luminance > LIGHT_THRESHOLD : luminance > DARK_THRESHOLD;
+        if (dark == current) {
+            return;
+        }
+        state.set(toggle(state.flags, dark), state.statusBarColor, state.navBarColor);
+        if (!entry.pending.isEmpty()) {
+            BarState pending = entry.pending;
+            pending.set(toggle(pending.flags, dark), pending.statusBarColor, pending.navBarColor);
+        }
+        View rootView = null == entry.rootView ? null : entry.rootView.get();
+        mApplying = true;
+        BarEngine.applyState(window, rootView, state);
+        mApplying = false;
+    }
+
+    /**
+     * 设置/清除状态栏深色图标标记
+     */
+    private static int toggle(int flags, boolean dark) {
+        return dark ? flags | BarState.STATUS_BLACK : flags & ~BarState.STATUS_BLACK;
+    }
+
+    /**
+     * 占用的内存（字节）：采样器及其持有的对象与采样图像素
+     */
+    int retainedBytes() {
+        return RetainedSize.of(this)
+                + RetainedSize.of(mWindow)
+                + RetainedSize.of(mMain)
+                + RetainedSize.of(mBitmap) + mBitmap.getRowBytes() * mBitmap.getHeight()
+                + RetainedSize.of(mPixels)
+                + RetainedSize.of(mSource)
+                + RetainedSize.of(mCanvas)
+                + RetainedSize.of(mCompute)
+                + RetainedSize.of(mFinish);
+    }
+
+    /**
+     * 获取后台计算线程
+     */
+    private static synchronized Handler getWorker() {
+        if (null == sWorker) {
+            HandlerThread thread = new HandlerThread("SystemBarSampler");
+            thread.start();
+            sWorker = new Handler(thread.getLooper());
+        }
+        return sWorker;
+    }
+}
@@ -0,0 +1,132 @@
+package com.brave.system.bar.library;
+
+import android.annotation.TargetApi;
+import android.graphics.Color;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.view.View;
+import android.view.Window;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 19:25
+ *     <b>desc</b>      ：<pre>
+ *         状态栏背景（渐变、图片），
+ *         状态栏设为透明（沉浸式），
+ *         背景以浮层的方式绘制在装饰布局顶部状态栏区域，
+ *         不添加View，不触发布局，窗口宽度变化时只更新边界
+ *     </pre>
+ * </pre>
+ */
+@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+final class BarBackground implements View.OnLayoutChangeListener {
+    // 背景
+    final Drawable mDrawable;
+    // 窗口（窗口条目持有背景，这里只能弱引用窗口）
+    private final WeakReference<Window> mWindow;
+
+    private BarBackground(@NonNull Window window, @NonNull Drawable drawable) {
+        mWindow = new WeakReference<>(window);
+        mDrawable = drawable;
+    }
+
+    /**
+     * 占用的内存（字节）：背景对象及其持有的弱引用（背景图由应用创建，只计算对象头）
+     */
+    int retainedBytes() {
+        return RetainedSize.of(this) + RetainedSize.of(mWindow) + RetainedSize.of(mDrawable);
+    }
+
+    /**
+     * 设置状态栏背景（Android 5.0 +）
+     *
+     * @param window   窗口
+     * @param rootView 根布局（可为空）
+     * @param flags    标记位{@link BarState}
+     * @param drawable 背景
+     */
+    static void set(@NonNull Window window,
+                    @Nullable View rootView,
+                    int flags,
+                    @NonNull Drawable drawable) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+            return;
+        }
+        // 沉浸式透明状态栏
+        BarEngine.apply(window, rootView, flags | BarState.STATUS_BAR, Color.TRANSPARENT, Color.TRANSPARENT);
+        WindowRegistry.Entry entry = WindowRegistry.obtain(window);
+        BarBackground background = entry.barBackground;
+        if (null != background && background.mDrawable == drawable) {
+            background.updateBounds();
+            return;
+        }
+        clear(window);
+        background = new BarBackground(window, drawable);
+        entry.barBackground = background;
+        View decorView = window.getDecorView();
+        decorView.getOverlay().add(drawable);
+        decorView.addOnLayoutChangeListener(background);
+        background.updateBounds();
+    }
+
+    /**
+     * 设置状态栏渐变背景（颜色与上次相同时不重新创建渐变）
+     */
+    static void setGradient(@NonNull Window window,
+                            @Nullable View rootView,
+                            int flags,
+                            @NonNull int[] colors) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP || colors.length == 0) {
+            return;
+        }
+        WindowRegistry.Entry entry = WindowRegistry.obtain(window);
+        BarBackground background = entry.barBackground;
+        if (null != background && background.mDrawable instanceof GradientBarDrawable) {
+            ((GradientBarDrawable) background.mDrawable).setColors(colors);
+            set(window, rootView, flags, background.mDrawable);
+        } else {
+            set(window, rootView, flags, new GradientBarDrawable(colors));
+        }
+    }
+
+    /**
+     * 清除状态栏背景
+     */
+    static void clear(@NonNull Window window) {
+        WindowRegistry.Entry entry = WindowRegistry.peek(window);
+        if (null == entry || null == entry.barBackground) {
+            return;
+        }
+        BarBackground background = entry.barBackground;
+        entry.barBackground = null;
+        View decorView = window.getDecorView();
+        decorView.removeOnLayoutChangeListener(background);
+        decorView.getOverlay().remove(background.mDrawable);
+    }
+
+    @Override
+    public void onLayoutChange(View v,
+                               int left, int top, int right, int bottom,
+                               int oldLeft, int oldTop, int oldRight, int oldBottom) {
+        updateBounds();
+    }
+
+    /**
+     * 更新背景边界：窗口宽度 x 顶部实际占用高度（边界不变时Drawable不会重新计算）
+     */
+    private void updateBounds() {
+        Window window = mWindow.get();
+        if (null == window) {
+            return;
+        }
+        View decorView = window.getDecorView();
+        mDrawable.setBounds(0, 0, decorView.getWidth(), BarMetrics.getTopInset(window));
+    }
+}
@@ -0,0 +1,468 @@
+package com.brave.system.bar.library;
+
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.Window;
+import android.view.WindowManager;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 15:45
+ *     <b>desc</b>      ：<pre>
+ *         窗口系统栏状态引擎，
+ *         把{@link BarState}应用到窗口上，
+ *         应用前先读取窗口当前的标记、可见性、颜色与根布局参数，
+ *         只修改有变化的部分
+ *     </pre>
+ * </pre>
+ */
+final class BarEngine {
+    /**
+     * 平台调用记录（测试用）
+     */
+    interface CallRecorder {
+        /**
+         * 对窗口或View发起了一次修改
+         *
+         * @param call 调用名称，如"Window.setFlags"
+         */
+        void onCall(@NonNull String call);
+    }
+
+    // 平台调用记录（测试用，为空时不记录）
+    @VisibleForTesting
+    static CallRecorder sRecorder;
+    // 是否开启布局归因（由{@link LayoutAttribution}设置）
+    static boolean sAttribute;
+
+    private BarEngine() {
+    }
+
+    /**
+     * 设置窗口系统栏状态（同时丢弃还未应用的延迟状态与日间/夜间状态）
+     *
+     * @param window         窗口
+     * @param rootView       根布局（可为空）
+     * @param flags          标记位{@link BarState}
+     * @param statusBarColor 状态栏颜色
+     * @param navBarColor    虚拟按键栏颜色
+     */
+    static void apply(@NonNull Window window,
+                      @Nullable View rootView,
+                      int flags,
+                      @ColorInt int statusBarColor,
+                      @ColorInt int navBarColor) {
+        apply(window, rootView, flags, statusBarColor, navBarColor, false);
+    }
+
+    /**
+     * 设置窗口系统栏状态（同时丢弃还未应用的延迟状态）
+     *
+     * @param keepPalette 保留日间/夜间状态（由{@link DayNightPalette}切换时为true，
+     *                    其它显式设置的状态替换日间/夜间状态，之后夜间模式变化时不再切换）
+     */
+    static void apply(@NonNull Window window,
+                      @Nullable View rootView,
+                      int flags,
+                      @ColorInt int statusBarColor,
+                      @ColorInt int navBarColor,
+                      boolean keepPalette) {
+        if ((flags & (BarState.STATUS_BAR | BarState.NAV_BAR)) == 0) {
+            return;
+        }
+        if (!isAndroid_4_4_Above()) {
+            return;
+        }
+        int requested = flags;
+        flags = normalize(window, flags);
+        WindowRegistry.Entry entry = WindowRegistry.obtain(window);
+        entry.state.set(flags, statusBarColor, navBarColor);
+        entry.strippedFlags = requested & ~flags;
+        // 显式设置的状态优先，丢弃之前延迟（主题切换、合并请求）还未应用的状态
+        entry.pending.clear();
+        if (!keepPalette) {
+            entry.clearPalette();
+        }
+        if (null != rootView) {
+            entry.rootView = new WeakReference<>(rootView);
+        }
+        applyState(window, rootView, entry.state);
+    }
+
+    /**
+     * 根据窗口整理标记位（去掉窗口不支持的部分）
+     */
+    static int normalize(@NonNull Window window, int flags) {
+        // 没有虚拟按键栏时不设置虚拟按键栏
+        if ((flags & BarState.NAV_BAR) != 0 && !BarMetrics.get(window).hasNavigationBar) {
+            flags &= ~(BarState.NAV_BAR | BarState.NAV_BLACK);
+        }
+        // 没有设置虚拟按键栏时不设置虚拟按键栏深色图标与对比度
+        if ((flags & BarState.NAV_BAR) == 0) {
+            flags &= ~(BarState.NAV_BLACK | BarState.NAV_CONTRAST_OFF);
+        }
+        return flags;
+    }
+
+    /**
+     * 子窗口继承父窗口的系统栏状态
+     *
+     * @param parent   父窗口
+     * @param child    子窗口
+     * @param rootView 子窗口根布局（可为空）
+     * @return 父窗口是否有状态
+     */
+    static boolean inherit(@NonNull Window parent, @NonNull Window child, @Nullable View rootView) {
+        WindowRegistry.Entry entry = WindowRegistry.peek(parent);
+        if (null == entry || entry.state.isEmpty()) {
+            return false;
+        }
+        BarState state = entry.state;
+        apply(child, rootView, state.flags, state.statusBarColor, state.navBarColor);
+        return true;
+    }
+
+    /**
+     * 把状态应用到窗口（只修改与窗口当前值不同的部分）
+     */
+    static void applyState(@NonNull Window window, @Nullable View rootView, @NonNull BarState state) {
+        // 布局归因（调试用）
+        boolean attribute = sAttribute;
+        if (attribute) {
+            LayoutAttribution.begin();
+        }
+        boolean isStatusBar = state.has(BarState.STATUS_BAR);
+        boolean isNavBar = state.has(BarState.NAV_BAR);
+        // 设置标识
+        setFlags(window, state);
+        // 需要更改状态栏颜色
+        if (isStatusBar) {
+            if (isAndroid_5_0_Above()) {
+                if (window.getStatusBarColor() != state.statusBarColor) {
+                    record("Window.setStatusBarColor");
+                    window.setStatusBarColor(state.statusBarColor);
+                }
+            } else {
+                setBarColor(getBar(window, true), state.statusBarColor);
+            }
+        }
+        // 需要更改虚拟按键栏颜色
+        if (isNavBar) {
+            if (isAndroid_5_0_Above()) {
+                if (window.getNavigationBarColor() != state.navBarColor) {
+                    record("Window.setNavigationBarColor");
+                    window.setNavigationBarColor(state.navBarColor);
+                }
+            } else {
+                setBarColor(getBar(window, false), state.navBarColor);
+            }
+        }
+        // 设置根布局参数
+        setRootView(rootView,
+                state.has(BarState.FIT_SYSTEM_WINDOWS),
+                state.has(BarState.CLIP_TO_PADDING));
+        if (attribute) {
+            LayoutAttribution.end(window, rootView);
+        }
+        WindowRegistry.Entry entry = WindowRegistry.peek(window);
+        if (null != entry) {
+            // 只在本库设置的不强制对比度变化时修改（全面屏手势导航的透明虚拟按键栏不强制，之后的状态恢复强制），
+            // 不覆盖应用主题中的enforceNavigationBarContrast
+            boolean contrastOff = state.has(BarState.NAV_CONTRAST_OFF);
+            if (entry.contrastOff != contrastOff) {
+                entry.contrastOff = contrastOff;
+                setNavigationBarContrastEnforced(window, !contrastOff);
+            }
+            // 状态被重新应用，图标自适应重新采样
+            if (null != entry.sampler) {
+                entry.sampler.onStateApplied();
+            }
+            // 通知系统栏状态监听
+            if (null != entry.observers) {
+                entry.observers.dispatch(window);
+            }
+        }
+    }
+
+    /**
+     * 通知窗口的系统栏状态监听（值没有变化时不通知）
+     */
+    static void dispatchChanged(@NonNull Window window) {
+        WindowRegistry.Entry entry = WindowRegistry.peek(window);
+        if (null != entry && null != entry.observers) {
+            entry.observers.dispatch(window);
+        }
+    }
+
+    /**
+     * 获取根布局：android.R.id.content的第一个子View
+     */
+    @Nullable
+    static View getRootView(@NonNull Window window) {
+        ViewGroup group = window.findViewById(android.R.id.content);
+        if (null == group || group.getChildCount() < 1) {
+            return null;
+        }
+        return group.getChildAt(0);
+    }
+
+    /**
+     * 设置window标记
+     */
+    private static void setFlags(@NonNull Window window, @NonNull BarState state) {
+        boolean isStatusBar = state.has(BarState.STATUS_BAR);
+        boolean isNavBar = state.has(BarState.NAV_BAR);
+        // Android 5.0 +
+        if (isAndroid_5_0_Above()) {
+            // 添加绘制系统栏的背景的标志
+            int add = WindowManager.LayoutParams.FLAG_DRAWS_SYSTEM_BAR_BACKGROUNDS;
+            int clear = 0;
+            // 状态栏
+            if (isStatusBar) {
+                // 清除透明状态栏的标志
+                clear = clear | WindowManager.LayoutParams.FLAG_TRANSLUCENT_STATUS;
+            }
+            // 虚拟按键栏
+            if (isNavBar) {
+                // 清除透明虚拟按键栏的标志
+                clear = clear | WindowManager.LayoutParams.FLAG_TRANSLUCENT_NAVIGATION;
+            }
+            setWindowFlags(window, add, clear);
+            // 请求改变状态栏或其他屏幕/窗口装饰的可见性
+            int option = getSystemUiVisibility(state);
+            View decorView = window.getDecorView();
+            if (option != 0 && decorView.getSystemUiVisibility() != option) {
+                record("View.setSystemUiVisibility");
+                decorView.setSystemUiVisibility(option);
+            }
+        }
+        // Android 4.4 +
+        else if (isAndroid_4_4_Above()) {
+            int add = 0;
+            // 是状态栏
+            if (isStatusBar) {
+                // 添加透明状态栏标记
+                add = add | WindowManager.LayoutParams.FLAG_TRANSLUCENT_STATUS;
+            }
+            // 是虚拟按键栏
+            if (isNavBar) {
+                // 添加透明虚拟按键栏标记
+                add = add | WindowManager.LayoutParams.FLAG_TRANSLUCENT_NAVIGATION;
+            }
+            setWindowFlags(window, add, 0);
+        }
+    }
+
+    /**
+     * 添加/清除窗口标记（只修改窗口当前没有的标记，且只提交一次）
+     */
+    static void setWindowFlags(@NonNull Window window, int add, int clear) {
+        int current = window.getAttributes().flags;
+        add = add & ~current;
+        clear = clear & current;
+        if (add != 0 || clear != 0) {
+            record("Window.setFlags");
+            window.setFlags(add, add | clear);
+        }
+    }
+
+    /**
+     * 设置是否强制虚拟按键栏对比度（Android 10 +，只在与当前值不同时修改），
+     * 不强制时透明的虚拟按键栏不会再由系统绘制半透明遮罩
+     */
+    static void setNavigationBarContrastEnforced(@NonNull Window window, boolean enforced) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+                && window.isNavigationBarContrastEnforced() != enforced) {
+            record("Window.setNavigationBarContrastEnforced");
+            window.setNavigationBarContrastEnforced(enforced);
+        }
+    }
+
+    /**
+     * 计算系统栏UI可见性（为0时表示不需要修改）
+     */
+    static int getSystemUiVisibility(@NonNull BarState state) {
+        int option = 0;
+        // 防止全屏显示时，弹出状态栏或者虚拟按键栏屏幕抖动
+        if (state.has(BarState.PREVENT_SHAKING)) {
+            // 全屏显示，但状态栏不会被隐藏覆盖，状态栏依然可见，Activity 顶端布局部分会被状态遮住
+            option = View.SYSTEM_UI_FLAG_LAYOUT_FULLSCREEN
+                    // 防止系统栏隐藏时内容区域大小发生变化
+                    | View.SYSTEM_UI_FLAG_LAYOUT_STABLE;
+            // 是虚拟按键栏
+            if (state.has(BarState.NAV_BAR)) {
+                // 隐藏虚拟按键栏
+                option = option | View.SYSTEM_UI_FLAG_LAYOUT_HIDE_NAVIGATION;
+            }
+            // 状态栏深色字体
+            if (state.has(BarState.STATUS_BLACK)) {
+                // 当前设备API大于等于23
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+                    // 请求状态栏深色字体
+                    option = option | View.SYSTEM_UI_FLAG_LIGHT_STATUS_BAR;
+                }
+            } else {
+                // 设置系统栏UI可见
+                option = option | View.SYSTEM_UI_FLAG_VISIBLE;
+            }
+        } else {
+            // 状态栏深色字体
+            if (state.has(BarState.STATUS_BLACK)) {
+                // 当前设备API大于等于23
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+                    // 请求状态栏深色字体
+                    option = View.SYSTEM_UI_FLAG_LIGHT_STATUS_BAR
+                            | View.SYSTEM_UI_FLAG_LAYOUT_FULLSCREEN;
+                }
+            }
+        }
+        // 虚拟按键栏深色图标
+        if (state.has(BarState.NAV_BLACK)) {
+            option = option | getLightNavBarFlag();
+        }
+        return option;
+    }
+
+    /**
+     * 虚拟按键栏深色图标标记（Android 8.0 +，低版本返回0）
+     */
+    private static int getLightNavBarFlag() {
+        // 当前设备API大于等于26
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            return View.SYSTEM_UI_FLAG_LIGHT_NAVIGATION_BAR;
+        }
+        return 0;
+    }
+
+    /**
+     * 设置根布局参数（只修改有变化的参数，避免不必要的Insets分发与重新布局）
+     *
+     * @return 是否有参数变化
+     */
+    static boolean setRootView(@Nullable View rootView,
+                               boolean fitSystemWindows,
+                               boolean clipToPadding) {
+        boolean changed = false;
+        if (null != rootView) {
+            if (rootView instanceof ViewGroup) {
+                ViewGroup viewGroup = (ViewGroup) rootView;
+                // 是否需要考虑系统栏占据的区域来显示
+                // true的情况下
+                // 内容不会被系统栏遮挡
+                if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN
+                        || viewGroup.getFitsSystemWindows() != fitSystemWindows) {
+                    record("View.setFitsSystemWindows");
+                    viewGroup.setFitsSystemWindows(fitSystemWindows);
+                    changed = true;
+                }
+                // 绘制区域是否在padding里面
+                // false的情况下
+                // 子View不受Padding的影响，可以展示在Padding的区域
+                if (!isAndroid_5_0_Above() || viewGroup.getClipToPadding() != clipToPadding) {
+                    record("ViewGroup.setClipToPadding");
+                    viewGroup.setClipToPadding(clipToPadding);
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * 设置系统栏View颜色（Android 4.4）
+     */
+    private static void setBarColor(@Nullable View bar, @ColorInt int color) {
+        // 没有依赖library-legacy
+        if (null == bar) {
+            return;
+        }
+        if (bar.getVisibility() != View.VISIBLE) {
+            record("View.setVisibility");
+            bar.setVisibility(View.VISIBLE);
+        }
+        Drawable background = bar.getBackground();
+        if (background instanceof ColorDrawable
+                && ((ColorDrawable) background).getColor() == color) {
+            return;
+        }
+        record("View.setBackgroundColor");
+        bar.setBackgroundColor(color);
+    }
+
+    /**
+     * 获取（创建）系统栏（状态栏、虚拟按键栏），Android 4.4
+     *
+     * @param isStatusBar 是状态栏
+     * @return 系统栏View（没有依赖library-legacy时为空）
+     */
+    @Nullable
+    private static View getBar(@NonNull Window window, boolean isStatusBar) {
+        // 获取窗口条目
+        WindowRegistry.Entry entry = WindowRegistry.obtain(window);
+        // 从缓存获取Bar View
+        WeakReference<View> cached = isStatusBar ? entry.statusBarView : entry.navBarView;
+        if (null != cached && null != cached.get()) {
+            return cached.get();
+        }
+        // 获取Android 4.4系统栏代理
+        LegacyBarDelegate delegate = LegacyBar.DELEGATE;
+        if (null == delegate) {
+            return null;
+        }
+        // 获取 Bar 高度
+        int barHeight = isStatusBar
+                ? BarMetrics.getStatusBarHeight(window)
+                : BarMetrics.getNavBarHeight(window);
+        // 获取（创建）Bar View
+        record("LegacyBarDelegate.getBar");
+        View bar = delegate.getBar(window, isStatusBar, barHeight);
+        // 缓存Bar View
+        if (isStatusBar) {
+            entry.statusBarView = new WeakReference<>(bar);
+        } else {
+            entry.navBarView = new WeakReference<>(bar);
+        }
+        // Bar View
+        return bar;
+    }
+
+    /**
+     * 记录一次平台调用
+     */
+    private static void record(@NonNull String call) {
+        if (null != sRecorder) {
+            sRecorder.onCall(call);
+        }
+        if (sAttribute) {
+            LayoutAttribution.onCall(call);
+        }
+    }
+
+    /**
+     * Android 4.4+
+     */
+    static boolean isAndroid_4_4_Above() {
+        // 当前设备API大于等于19
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT;
+    }
+
+    /**
+     * Android 5.0+
+     */
+    static boolean isAndroid_5_0_Above() {
+        // 当前设备API大于等于21
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP;
+    }
+}
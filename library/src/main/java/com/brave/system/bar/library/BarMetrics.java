@@ -0,0 +1,360 @@
+package com.brave.system.bar.library;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.os.Build;
+import android.util.DisplayMetrics;
+import android.view.Display;
+import android.view.DisplayCutout;
+import android.view.View;
+import android.view.Window;
+import android.view.WindowInsets;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 14:40
+ *     <b>desc</b>      ：<pre>
+ *         系统栏尺寸，
+ *         按显示屏、旋转方向、窗口尺寸与密度缓存（最多保存最近使用的{@link #MAX_CACHED}种，
+ *         自由窗口、分屏等不断变化的窗口尺寸不会无限增加缓存），
+ *         每种姿态（旋转、折叠/展开、分屏尺寸）只计算一次，
+ *         配置变化后直接切换到已计算的值，
+ *         刘海屏的安全区域同样按旋转方向缓存，
+ *         初始化后已计算的尺寸同时保存到磁盘（{@link MetricsStore}），冷启动时直接使用
+ *     </pre>
+ * </pre>
+ */
+final class BarMetrics {
+    // 最多缓存的尺寸数量（与磁盘缓存相同）
+    static final int MAX_CACHED = 64;
+
+    // 已计算的尺寸（按使用顺序排列，超过数量时移除最久没有使用的）
+    private static final LinkedHashMap<Long, BarMetrics> sCache =
+            new LinkedHashMap<Long, BarMetrics>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, BarMetrics> eldest) {
+                    return size() > MAX_CACHED;
+                }
+            };
+    // 是否开启磁盘缓存（由{@link MetricsStore}设置）
+    static boolean sPersist;
+
+    // 状态栏高度
+    final int statusBarHeight;
+    // 虚拟按键栏高度
+    final int navBarHeight;
+    // 是否拥有虚拟按键栏
+    final boolean hasNavigationBar;
+    // 是否根据窗口Insets计算（否则根据显示屏尺寸估算）
+    final boolean fromInsets;
+    // 刘海屏顶部安全距离
+    final int safeInsetTop;
+    // 刘海屏底部安全距离
+    final int safeInsetBottom;
+    // 顶部实际占用高度（状态栏与刘海取较大值）
+    final int topInset;
+
+    BarMetrics(int statusBarHeight,
+               int navBarHeight,
+               boolean hasNavigationBar,
+               boolean fromInsets,
+               int safeInsetTop,
+               int safeInsetBottom) {
+        this.statusBarHeight = statusBarHeight;
+        this.navBarHeight = navBarHeight;
+        this.hasNavigationBar = hasNavigationBar;
+        this.fromInsets = fromInsets;
+        this.safeInsetTop = safeInsetTop;
+        this.safeInsetBottom = safeInsetBottom;
+        this.topInset = Math.max(statusBarHeight, safeInsetTop);
+    }
+
+    /**
+     * 尺寸是否相同
+     */
+    boolean sameAs(@NonNull BarMetrics other) {
+        return statusBarHeight == other.statusBarHeight
+                && navBarHeight == other.navBarHeight
+                && hasNavigationBar == other.hasNavigationBar
+                && fromInsets == other.fromInsets
+                && safeInsetTop == other.safeInsetTop
+                && safeInsetBottom == other.safeInsetBottom;
+    }
+
+    /**
+     * 是否有刘海（安全区域与旋转方向相关）
+     */
+    boolean hasCutout() {
+        return safeInsetTop > 0 || safeInsetBottom > 0;
+    }
+
+    /**
+     * 获取窗口当前姿态的系统栏尺寸
+     */
+    @NonNull
+    static BarMetrics get(@NonNull Window window) {
+        WindowRegistry.Entry entry = WindowRegistry.obtain(window);
+        Configuration config = window.getContext().getResources().getConfiguration();
+        BarMetrics metrics = entry.metrics;
+        // 配置没有变化，直接使用窗口缓存
+        if (null != metrics
+                && entry.orientation == config.orientation
+                && entry.screenWidthDp == config.screenWidthDp
+                && entry.screenHeightDp == config.screenHeightDp
+                && entry.densityDpi == getDensityDpi(config)
+                && (metrics.fromInsets || !canUseInsets(window))
+                && (!metrics.hasCutout() || entry.rotation == getDisplay(window).getRotation())) {
+            return metrics;
+        }
+        metrics = obtain(window, config);
+        entry.metrics = metrics;
+        entry.orientation = config.orientation;
+        entry.screenWidthDp = config.screenWidthDp;
+        entry.screenHeightDp = config.screenHeightDp;
+        entry.densityDpi = getDensityDpi(config);
+        entry.rotation = metrics.hasCutout() ? getDisplay(window).getRotation() : 0;
+        return metrics;
+    }
+
+    /**
+     * 丢弃窗口缓存，下次获取时按当前姿态重新查找
+     */
+    static void invalidate(@NonNull Window window) {
+        WindowRegistry.Entry entry = WindowRegistry.peek(window);
+        if (null != entry) {
+            entry.metrics = null;
+        }
+    }
+
+    /**
+     * 获取状态栏高度
+     */
+    static int getStatusBarHeight(@NonNull Window window) {
+        return get(window).statusBarHeight;
+    }
+
+    /**
+     * 获取虚拟按键栏高度
+     */
+    static int getNavBarHeight(@NonNull Window window) {
+        return get(window).navBarHeight;
+    }
+
+    /**
+     * 获取顶部实际占用高度（状态栏与刘海取较大值）
+     */
+    static int getTopInset(@NonNull Window window) {
+        return get(window).topInset;
+    }
+
+    /**
+     * 从全局缓存获取（没有时计算）
+     */
+    @NonNull
+    private static BarMetrics obtain(@NonNull Window window, @NonNull Configuration config) {
+        Display display = getDisplay(window);
+        boolean useInsets = canUseInsets(window);
+        long key = key(display, config, useInsets);
+        BarMetrics metrics = sCache.get(key);
+        if (null != metrics) {
+            return metrics;
+        }
+        // 使用磁盘缓存，第一帧之后校验
+        if (sPersist) {
+            metrics = MetricsStore.peek(key);
+            if (null != metrics) {
+                sCache.put(key, metrics);
+                MetricsStore.verifyAfterFirstFrame(window, key, metrics);
+                return metrics;
+            }
+        }
+        metrics = compute(window, display, config, useInsets);
+        sCache.put(key, metrics);
+        if (sPersist) {
+            MetricsStore.onComputed();
+        }
+        return metrics;
+    }
+
+    /**
+     * 用实际值校验磁盘缓存的尺寸，不一致时替换并通知使用它的窗口
+     *
+     * @param window 窗口
+     * @param key    缓存Key
+     * @param cached 磁盘缓存的尺寸
+     */
+    static void verify(@NonNull Window window, long key, @NonNull BarMetrics cached) {
+        if (cached.fromInsets && !canUseInsets(window)) {
+            return;
+        }
+        Display display = getDisplay(window);
+        Configuration config = window.getContext().getResources().getConfiguration();
+        // 姿态已变化，无法在当前姿态下校验
+        if (key(display, config, cached.fromInsets) != key) {
+            return;
+        }
+        BarMetrics live = compute(window, display, config, cached.fromInsets);
+        if (live.sameAs(cached)) {
+            return;
+        }
+        sCache.put(key, live);
+        MetricsStore.onComputed();
+        // 替换已使用旧值的窗口，并重新应用系统栏状态
+        ArrayList<WindowRegistry.Entry> entries = WindowRegistry.entries();
+        for (int i = 0, size = entries.size(); i < size; i++) {
+            WindowRegistry.Entry entry = entries.get(i);
+            Window w = entry.get();
+            if (null == w || entry.metrics != cached) {
+                continue;
+            }
+            entry.metrics = live;
+            if (entry.state.isEmpty()) {
+                BarEngine.dispatchChanged(w);
+            } else {
+                // 按设置时请求的标记位重新整理（旧值可能错误地去掉了虚拟按键栏），
+                // 保留等待应用的状态与日间/夜间状态
+                int stripped = entry.strippedFlags;
+                renormalize(w, entry.pending, stripped);
+                entry.strippedFlags = renormalize(w, entry.state, stripped);
+                View rootView = null == entry.rootView ? null : entry.rootView.get();
+                BarEngine.applyState(w, rootView, entry.state);
+            }
+        }
+    }
+
+    /**
+     * 加上被整理掉的标记位后按当前尺寸重新整理
+     *
+     * @return 重新整理后依然被去掉的标记位
+     */
+    private static int renormalize(@NonNull Window window, @NonNull BarState state, int stripped) {
+        if (state.isEmpty()) {
+            return stripped;
+        }
+        int requested = state.flags | stripped;
+        int flags = BarEngine.normalize(window, requested);
+        state.set(flags, state.statusBarColor, state.navBarColor);
+        return requested & ~flags;
+    }
+
+    /**
+     * 复制所有已计算的尺寸（用于保存，按使用顺序从久到近排列）
+     */
+    @NonNull
+    static LinkedHashMap<Long, BarMetrics> snapshot() {
+        return new LinkedHashMap<>(sCache);
+    }
+
+    /**
+     * 计算系统栏尺寸
+     */
+    @NonNull
+    private static BarMetrics compute(@NonNull Window window,
+                                      @NonNull Display display,
+                                      @NonNull Configuration config,
+                                      boolean useInsets) {
+        Context context = window.getContext();
+        boolean landscape = config.orientation == Configuration.ORIENTATION_LANDSCAPE;
+        boolean hasNavigationBar = useInsets
+                ? hasNavigationBarFromInsets(window.getDecorView())
+                : Utils.hasNavigationBar(display);
+        int safeInsetTop = 0;
+        int safeInsetBottom = 0;
+        if (useInsets && Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+            DisplayCutout cutout = window.getDecorView().getRootWindowInsets().getDisplayCutout();
+            if (null != cutout) {
+                safeInsetTop = cutout.getSafeInsetTop();
+                safeInsetBottom = cutout.getSafeInsetBottom();
+            }
+        }
+        return new BarMetrics(Utils.getStatusBarHeight(context),
+                getNavBarHeight(context, landscape),
+                hasNavigationBar,
+                useInsets,
+                safeInsetTop,
+                safeInsetBottom);
+    }
+
+    /**
+     * 获取虚拟按键栏高度（横屏时优先使用横屏尺寸）
+     */
+    private static int getNavBarHeight(@NonNull Context context, boolean landscape) {
+        if (landscape) {
+            Resources resources = context.getResources();
+            int resourceId = resources.getIdentifier(
+                    "navigation_bar_height_landscape", "dimen", "android");
+            if (resourceId > 0 && Utils.getNavBarHeight(context) > 0) {
+                return resources.getDimensionPixelSize(resourceId);
+            }
+        }
+        return Utils.getNavBarHeight(context);
+    }
+
+    /**
+     * 根据窗口Insets判断是否拥有虚拟按键栏（支持分屏、自由窗口与副屏）
+     */
+    @TargetApi(Build.VERSION_CODES.M)
+    private static boolean hasNavigationBarFromInsets(@NonNull View decorView) {
+        WindowInsets insets = decorView.getRootWindowInsets();
+        if (null == insets) {
+            return false;
+        }
+        return insets.getStableInsetBottom() > 0
+                || insets.getStableInsetLeft() > 0
+                || insets.getStableInsetRight() > 0;
+    }
+
+    /**
+     * 是否可以使用窗口Insets（Android 6.0 + 且窗口已显示）
+     */
+    private static boolean canUseInsets(@NonNull Window window) {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.M
+                && null != window.getDecorView().getRootWindowInsets();
+    }
+
+    /**
+     * 获取窗口所在的显示屏
+     */
+    @NonNull
+    private static Display getDisplay(@NonNull Window window) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            Display display = window.getDecorView().getDisplay();
+            if (null != display) {
+                return display;
+            }
+        }
+        return window.getWindowManager().getDefaultDisplay();
+    }
+
+    /**
+     * 获取屏幕密度
+     */
+    private static int getDensityDpi(@NonNull Configuration config) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            return config.densityDpi;
+        }
+        return DisplayMetrics.DENSITY_DEFAULT;
+    }
+
+    /**
+     * 缓存Key：显示屏(10位) | Insets(1位) | 旋转方向(2位) | 密度(16位) | 窗口宽度(16位) | 窗口高度(16位)
+     */
+    private static long key(@NonNull Display display, @NonNull Configuration config, boolean useInsets) {
+        return ((long) display.getDisplayId() & 0x3ff) << 51
+                | (useInsets ? 1L : 0L) << 50
+                | ((long) display.getRotation() & 0x3) << 48
+                | ((long) getDensityDpi(config) & 0xffff) << 32
+                | ((long) config.screenWidthDp & 0xffff) << 16
+                | ((long) config.screenHeightDp & 0xffff);
+    }
+}
@@ -0,0 +1,177 @@
+package com.brave.system.bar.library;
+
+import android.os.Build;
+import android.view.View;
+import android.view.Window;
+import android.view.WindowManager;
+
+import androidx.annotation.NonNull;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 21:30
+ *     <b>desc</b>      ：<pre>
+ *         窗口系统栏状态监听，
+ *         保存在窗口条目中，监听数组写时复制，
+ *         只在系统栏高度、颜色或可见性与上次分发的值不同时分发，
+ *         分发时只传递基本类型，不创建对象
+ *     </pre>
+ * </pre>
+ */
+final class BarObservers {
+    // 空监听数组
+    private static final BarUtils.OnSystemBarChangeListener[] EMPTY = new BarUtils.OnSystemBarChangeListener[0];
+    // 可见性：状态栏可见
+    private static final int STATUS_VISIBLE = 1;
+    // 可见性：虚拟按键栏可见
+    private static final int NAV_VISIBLE = 1 << 1;
+
+    // 监听（写时复制，分发时直接遍历）
+    private BarUtils.OnSystemBarChangeListener[] mListeners = EMPTY;
+    // 上次分发的值
+    private int mStatusBarHeight = -1;
+    private int mStatusBarColor;
+    private int mNavBarHeight = -1;
+    private int mNavBarColor;
+    private int mVisibility = -1;
+
+    /**
+     * 占用的内存（字节）：监听集合及其数组（监听本身由调用方持有，不计算）
+     */
+    int retainedBytes() {
+        return RetainedSize.of(this) + (mListeners == EMPTY ? 0 : RetainedSize.of(mListeners));
+    }
+
+    /**
+     * 添加监听，并立即把当前值分发给它
+     *
+     * @return 是否添加（已添加时返回false）
+     */
+    boolean add(@NonNull Window window, @NonNull BarUtils.OnSystemBarChangeListener listener) {
+        BarUtils.OnSystemBarChangeListener[] listeners = mListeners;
+        for (BarUtils.OnSystemBarChangeListener l : listeners) {
+            if (l == listener) {
+                return false;
+            }
+        }
+        BarUtils.OnSystemBarChangeListener[] copy = new BarUtils.OnSystemBarChangeListener[listeners.length + 1];
+        System.arraycopy(listeners, 0, copy, 0, listeners.length);
+        copy[listeners.length] = listener;
+        mListeners = copy;
+        // 更新当前值后分发给新监听
+        update(window);
+        listener.onSystemBarChanged(window,
+                mStatusBarHeight,
+                mStatusBarColor,
+                (mVisibility & STATUS_VISIBLE) != 0,
+                mNavBarHeight,
+                mNavBarColor,
+                (mVisibility & NAV_VISIBLE) != 0);
+        return true;
+    }
+
+    /**
+     * 移除监听
+     *
+     * @return 是否移除
+     */
+    boolean remove(@NonNull BarUtils.OnSystemBarChangeListener listener) {
+        BarUtils.OnSystemBarChangeListener[] listeners = mListeners;
+        for (int i = 0, length = listeners.length; i < length; i++) {
+            if (listeners[i] == listener) {
+                if (length == 1) {
+                    mListeners = EMPTY;
+                } else {
+                    BarUtils.OnSystemBarChangeListener[] copy = new BarUtils.OnSystemBarChangeListener[length - 1];
+                    System.arraycopy(listeners, 0, copy, 0, i);
+                    System.arraycopy(listeners, i + 1, copy, i, length - i - 1);
+                    mListeners = copy;
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 是否没有监听
+     */
+    boolean isEmpty() {
+        return mListeners.length == 0;
+    }
+
+    /**
+     * 值有变化时分发给所有监听
+     */
+    void dispatch(@NonNull Window window) {
+        BarUtils.OnSystemBarChangeListener[] listeners = mListeners;
+        if (listeners.length == 0 || !update(window)) {
+            return;
+        }
+        boolean statusBarVisible = (mVisibility & STATUS_VISIBLE) != 0;
+        boolean navBarVisible = (mVisibility & NAV_VISIBLE) != 0;
+        for (BarUtils.OnSystemBarChangeListener listener : listeners) {
+            listener.onSystemBarChanged(window,
+                    mStatusBarHeight,
+                    mStatusBarColor,
+                    statusBarVisible,
+                    mNavBarHeight,
+                    mNavBarColor,
+                    navBarVisible);
+        }
+    }
+
+    /**
+     * 读取窗口当前的值
+     *
+     * @return 是否有变化
+     */
+    private boolean update(@NonNull Window window) {
+        BarMetrics metrics = BarMetrics.get(window);
+        int statusBarHeight = metrics.topInset;
+        int navBarHeight = metrics.hasNavigationBar ? metrics.navBarHeight : 0;
+        int statusBarColor;
+        int navBarColor;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            statusBarColor = window.getStatusBarColor();
+            navBarColor = window.getNavigationBarColor();
+        } else {
+            WindowRegistry.Entry entry = WindowRegistry.peek(window);
+            statusBarColor = null == entry ? 0 : entry.state.statusBarColor;
+            navBarColor = null == entry ? 0 : entry.state.navBarColor;
+        }
+        int visibility = getVisibility(window, metrics);
+        if (statusBarHeight == mStatusBarHeight
+                && statusBarColor == mStatusBarColor
+                && navBarHeight == mNavBarHeight
+                && navBarColor == mNavBarColor
+                && visibility == mVisibility) {
+            return false;
+        }
+        mStatusBarHeight = statusBarHeight;
+        mStatusBarColor = statusBarColor;
+        mNavBarHeight = navBarHeight;
+        mNavBarColor = navBarColor;
+        mVisibility = visibility;
+        return true;
+    }
+
+    /**
+     * 系统栏可见性（全屏标记与UI可见性）
+     */
+    private static int getVisibility(@NonNull Window window, @NonNull BarMetrics metrics) {
+        int option = window.getDecorView().getSystemUiVisibility();
+        int visibility = 0;
+        if ((window.getAttributes().flags & WindowManager.LayoutParams.FLAG_FULLSCREEN) == 0
+                && (option & View.SYSTEM_UI_FLAG_FULLSCREEN) == 0) {
+            visibility = visibility | STATUS_VISIBLE;
+        }
+        if (metrics.hasNavigationBar
+                && (option & View.SYSTEM_UI_FLAG_HIDE_NAVIGATION) == 0) {
+            visibility = visibility | NAV_VISIBLE;
+        }
+        return visibility;
+    }
+}
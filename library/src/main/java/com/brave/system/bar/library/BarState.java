@@ -0,0 +1,108 @@
+package com.brave.system.bar.library;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 15:30
+ *     <b>desc</b>      ：<pre>
+ *         窗口系统栏状态，
+ *         由一个标记位与两个颜色组成，
+ *         保存在窗口条目中，供子窗口继承与按变化应用，
+ *         标记位的取值与bar-preset-plugin生成的预设常量一致，不能修改
+ *     </pre>
+ * </pre>
+ */
+final class BarState {
+    // 状态栏
+    static final int STATUS_BAR = 1;
+    // 虚拟按键栏
+    static final int NAV_BAR = 1 << 1;
+    // 防止抖动
+    static final int PREVENT_SHAKING = 1 << 2;
+    // 状态栏深色字体
+    static final int STATUS_BLACK = 1 << 3;
+    // 虚拟按键栏深色图标
+    static final int NAV_BLACK = 1 << 4;
+    // 系统栏占位
+    static final int FIT_SYSTEM_WINDOWS = 1 << 5;
+    // 子View不能展示在Padding区域
+    static final int CLIP_TO_PADDING = 1 << 6;
+    // 不强制虚拟按键栏对比度（Android 10 +，全面屏手势导航的透明虚拟按键栏，库内部使用，预设不会生成）
+    static final int NAV_CONTRAST_OFF = 1 << 7;
+
+    // 标记位（为0时表示没有状态）
+    int flags;
+    // 状态栏颜色
+    int statusBarColor;
+    // 虚拟按键栏颜色
+    int navBarColor;
+
+    /**
+     * 打包标记位
+     */
+    static int pack(boolean isStatusBar,
+                    boolean isNavBar,
+                    boolean preventShaking,
+                    boolean isBlack,
+                    boolean isNavBlack,
+                    boolean fitSystemWindows,
+                    boolean clipToPadding) {
+        return (isStatusBar ? STATUS_BAR : 0)
+                | (isNavBar ? NAV_BAR : 0)
+                | (preventShaking ? PREVENT_SHAKING : 0)
+                | (isBlack ? STATUS_BLACK : 0)
+                | (isNavBlack ? NAV_BLACK : 0)
+                | (fitSystemWindows ? FIT_SYSTEM_WINDOWS : 0)
+                | (clipToPadding ? CLIP_TO_PADDING : 0);
+    }
+
+    /**
+     * 是否没有状态
+     */
+    boolean isEmpty() {
+        return flags == 0;
+    }
+
+    /**
+     * 是否包含标记
+     */
+    boolean has(int flag) {
+        return (flags & flag) != 0;
+    }
+
+    /**
+     * 设置状态
+     */
+    void set(int flags, @ColorInt int statusBarColor, @ColorInt int navBarColor) {
+        this.flags = flags;
+        this.statusBarColor = statusBarColor;
+        this.navBarColor = navBarColor;
+    }
+
+    /**
+     * 复制状态
+     */
+    void set(@NonNull BarState state) {
+        set(state.flags, state.statusBarColor, state.navBarColor);
+    }
+
+    /**
+     * 清除状态
+     */
+    void clear() {
+        set(0, 0, 0);
+    }
+
+    /**
+     * 状态是否相同
+     */
+    boolean equals(int flags, @ColorInt int statusBarColor, @ColorInt int navBarColor) {
+        return this.flags == flags
+                && this.statusBarColor == statusBarColor
+                && this.navBarColor == navBarColor;
+    }
+}
@@ -0,0 +1,131 @@
+package com.brave.system.bar.library;
+
+import android.app.Activity;
+import android.os.Bundle;
+import android.view.View;
+import android.view.ViewTreeObserver;
+import android.view.Window;
+
+import androidx.annotation.NonNull;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 17:50
+ *     <b>desc</b>      ：<pre>
+ *         系统栏状态保存与恢复，
+ *         把窗口已应用的状态以几个int保存到savedInstanceState中，
+ *         Activity重建（旋转、夜间模式变化、进程被回收）时在onStart（第一帧之前）直接恢复
+ *         （Activity在onCreate中已经设置了系统栏时不恢复），
+ *         避免系统栏闪回默认样式与重新计算
+ *     </pre>
+ * </pre>
+ */
+final class BarStateSaver {
+    // 保存的Key
+    private static final String KEY = "com.brave.system.bar.library:state";
+    // 只有当前状态时的长度
+    private static final int LENGTH = 3;
+    // 带日间/夜间状态时的长度（当前状态、日间状态、夜间状态、应用时的夜间模式）
+    private static final int LENGTH_DAY_NIGHT = 10;
+    // 已读取、等待onStart时应用的状态（Activity没有启动就销毁时随Activity回收）
+    private static final WeakHashMap<Activity, int[]> sRestoring = new WeakHashMap<>();
+
+    private BarStateSaver() {
+    }
+
+    /**
+     * 保存Activity窗口的系统栏状态
+     */
+    static void save(@NonNull Activity activity, @NonNull Bundle outState) {
+        WindowRegistry.Entry entry = WindowRegistry.peek(activity.getWindow());
+        if (null == entry || entry.state.isEmpty()) {
+            return;
+        }
+        boolean dayNight = !entry.day.isEmpty();
+        int[] packed = new int[dayNight ? LENGTH_DAY_NIGHT : LENGTH];
+        write(packed, 0, entry.state);
+        if (dayNight) {
+            write(packed, 3, entry.day);
+            write(packed, 6, entry.night);
+            packed[9] = entry.nightMode;
+        }
+        outState.putIntArray(KEY, packed);
+    }
+
+    /**
+     * 读取Activity保存的系统栏状态（onCreate期间调用，不访问窗口，
+     * 避免提前创建装饰布局导致Activity之后的requestWindowFeature抛出异常）
+     */
+    static void restore(@NonNull Activity activity, @NonNull Bundle savedInstanceState) {
+        int[] packed = savedInstanceState.getIntArray(KEY);
+        if (null == packed || (packed.length != LENGTH && packed.length != LENGTH_DAY_NIGHT)) {
+            return;
+        }
+        sRestoring.put(activity, packed);
+    }
+
+    /**
+     * 应用读取的系统栏状态（onStart时调用，此时已经setContentView，且还没有绘制第一帧），
+     * Activity在onCreate中已经重新设置了系统栏时以它为准，
+     * 带日间/夜间状态时先恢复保存时的状态，重建后夜间模式有变化再切换
+     */
+    static void onStarted(@NonNull Activity activity) {
+        if (sRestoring.isEmpty()) {
+            return;
+        }
+        int[] packed = sRestoring.remove(activity);
+        if (null == packed) {
+            return;
+        }
+        final Window window = activity.getWindow();
+        WindowRegistry.Entry entry = WindowRegistry.peek(window);
+        if (null != entry && !entry.state.isEmpty()) {
+            return;
+        }
+        final View rootView = BarEngine.getRootView(window);
+        BarEngine.apply(window, rootView, packed[0], packed[1], packed[2]);
+        if (packed.length == LENGTH_DAY_NIGHT) {
+            DayNightPalette.restore(window,
+                    packed[3], packed[4], packed[5],
+                    packed[6], packed[7], packed[8],
+                    packed[9]);
+        }
+        if (null != rootView) {
+            return;
+        }
+        // 根布局在onStart之后才添加，第一帧之前再应用
+        final View decorView = window.getDecorView();
+        decorView.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                decorView.getViewTreeObserver().removeOnPreDrawListener(this);
+                WindowRegistry.Entry entry = WindowRegistry.peek(window);
+                View rootView = BarEngine.getRootView(window);
+                if (null == entry || entry.state.isEmpty() || null == rootView) {
+                    return true;
+                }
+                if (null == entry.rootView || null == entry.rootView.get()) {
+                    entry.rootView = new WeakReference<>(rootView);
+                }
+                // 根布局参数有变化时跳过这一帧，按新的Insets重新布局后再绘制
+                return !BarEngine.setRootView(rootView,
+                        entry.state.has(BarState.FIT_SYSTEM_WINDOWS),
+                        entry.state.has(BarState.CLIP_TO_PADDING));
+            }
+        });
+    }
+
+    /**
+     * 写入状态
+     */
+    private static void write(@NonNull int[] packed, int offset, @NonNull BarState state) {
+        packed[offset] = state.flags;
+        packed[offset + 1] = state.statusBarColor;
+        packed[offset + 2] = state.navBarColor;
+    }
+}
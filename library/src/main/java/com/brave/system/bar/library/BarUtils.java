@@ -1,23 +1,24 @@
 package com.brave.system.bar.library;
 
 import android.app.Activity;
+import android.app.Application;
+import android.app.Dialog;
 import android.content.Context;
 import android.graphics.Color;
+import android.graphics.drawable.Drawable;
 import android.os.Build;
-import android.view.Gravity;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.Window;
-import android.view.WindowManager;
-import android.widget.FrameLayout;
 
 import androidx.annotation.ColorInt;
 import androidx.annotation.FloatRange;
 import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.DialogFragment;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
+import java.lang.ref.WeakReference;
 
 /**
  * <pre>
@@ -38,182 +39,56 @@ import java.lang.reflect.Method;
  * </pre>
  */
 public final class BarUtils {
-    // 状态栏Tag
-    private static final String STATUS_BAR_TAG = "COM_BRAVE_SYSTEM_BAR_LIBRARY_STATUS_BAR";
-    // 虚拟按键栏Tag
-    private static final String NAV_BAR_TAG = "COM_BRAVE_SYSTEM_BAR_LIBRARY_NAV_BAR";
-
-    /**
-     * 获取（创建）系统栏（状态栏、虚拟按键栏）
-     *
-     * @param isStatusBar 是状态栏
-     */
-    private static final View getBar(@NonNull Window window, boolean isStatusBar) {
-        // Android 5.0 + 不需要创建
-        if (isAndroid_5_0_Above()) {
-            return null;
-        }
-        // 获取装饰布局
-        ViewGroup decorView = (ViewGroup) window.getDecorView();
-        // 获取Bar View Tag
-        String tag = isStatusBar ? STATUS_BAR_TAG : NAV_BAR_TAG;
-        // 根据Tag获取Bar View
-        View bar = decorView.findViewWithTag(tag);
-        // Bar View为空
-        if (null == bar) {
-            // 创建一个新的Bar View
-            bar = new View(window.getContext());
-            // 获取Context
-            Context context = window.getContext();
-            // 获取 Bar 高度
-            int barHeight = isStatusBar
-                    ? Utils.getStatusBarHeight(context)
-                    : Utils.getNavBarHeight(context);
-            // 创建一个新的布局属性，并把Bar高度赋值给它
-            FrameLayout.LayoutParams params = new FrameLayout.LayoutParams(
-                    FrameLayout.LayoutParams.MATCH_PARENT, barHeight);
-            // 设置布局位置居于顶部
-            params.gravity = Gravity.TOP;
-            // 把布局属性赋值给Bar View
-            bar.setLayoutParams(params);
-            // 设置Bar View Tag
-            bar.setTag(tag);
-            // 把Bar View添加到装饰布局
-            decorView.addView(bar);
-        }
-        // Bar View
-        return bar;
-    }
-
     /**
-     * 获取状态栏
+     * 导航方式：三按键
      */
-    private static final View getStatusBar(@NonNull Window window) {
-        return getBar(window, true);
-    }
-
+    public static final int NAV_MODE_THREE_BUTTON = NavigationMode.THREE_BUTTON;
     /**
-     * 获取虚拟按键栏
+     * 导航方式：两按键
      */
-    private static final View getNavBar(@NonNull Window window) {
-        return getBar(window, false);
-    }
-
+    public static final int NAV_MODE_TWO_BUTTON = NavigationMode.TWO_BUTTON;
     /**
-     * 设置根布局参数
+     * 导航方式：全面屏手势
      */
-    private static final void setRootView(@NonNull View rootView,
-                                          boolean fitSystemWindows,
-                                          boolean clipToPadding) {
-        if (null != rootView) {
-            if (rootView instanceof ViewGroup) {
-                ViewGroup viewGroup = (ViewGroup) rootView;
-                // 是否需要考虑系统栏占据的区域来显示
-                // true的情况下
-                // 内容不会被系统栏遮挡
-                viewGroup.setFitsSystemWindows(fitSystemWindows);
-                // 绘制区域是否在padding里面
-                // false的情况下
-                // 子View不受Padding的影响，可以展示在Padding的区域
-                viewGroup.setClipToPadding(clipToPadding);
-            }
-        }
-    }
-
-    /**
-     * 设置window标记
-     *
-     * @param window         窗口
-     * @param isStatusBar    是状态栏
-     * @param isNavBar       是虚拟按键栏
-     * @param isBlack        状态栏深色字体
-     * @param preventShaking 防止抖动
-     */
-    private static final void setFlags(@NonNull Window window,
-                                       boolean isStatusBar,
-                                       boolean isNavBar,
-                                       boolean isBlack,
-                                       boolean preventShaking) {
-        // Android 5.0 +
-        if (isAndroid_5_0_Above()) {
-            // 添加绘制系统栏的背景的标志
-            window.addFlags(WindowManager.LayoutParams.FLAG_DRAWS_SYSTEM_BAR_BACKGROUNDS);
-            // 状态栏
-            if (isStatusBar) {
-                // 清除透明状态栏的标志
-                window.clearFlags(WindowManager.LayoutParams.FLAG_TRANSLUCENT_STATUS);
-            }
-            // 虚拟按键栏
-            if (isNavBar) {
-                // 清除透明虚拟按键栏的标志
-                window.clearFlags(WindowManager.LayoutParams.FLAG_TRANSLUCENT_NAVIGATION);
-            }
-            // 防止全屏显示时，弹出状态栏或者虚拟按键栏屏幕抖动
-            if (preventShaking) {
-                // 全屏显示，但状态栏不会被隐藏覆盖，状态栏依然可见，Activity 顶端布局部分会被状态遮住
-                int option = View.SYSTEM_UI_FLAG_LAYOUT_FULLSCREEN
-                        // 防止系统栏隐藏时内容区域大小发生变化
-                        | View.SYSTEM_UI_FLAG_LAYOUT_STABLE;
-                // 是虚拟按键栏
-                if (isNavBar) {
-                    // 隐藏虚拟按键栏
-                    option = option | View.SYSTEM_UI_FLAG_LAYOUT_HIDE_NAVIGATION;
-                }
-                // 状态栏深色字体
-                if (isBlack) {
-                    // 当前设备API大于等于23
-                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-                        // 请求状态栏深色字体
-                        option = option | View.SYSTEM_UI_FLAG_LIGHT_STATUS_BAR;
-                    }
-                } else {
-                    // 设置系统栏UI可见
-                    option = option | View.SYSTEM_UI_FLAG_VISIBLE;
-                }
-                // 请求改变状态栏或其他屏幕/窗口装饰的可见性
-                window.getDecorView().setSystemUiVisibility(option);
-            } else {
-                // 状态栏深色字体
-                if (isBlack) {
-                    // 当前设备API大于等于23
-                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-                        // 请求状态栏深色字体
-                        // 请求改变状态栏或其他屏幕/窗口装饰的可见性
-                        window.getDecorView().setSystemUiVisibility(View.SYSTEM_UI_FLAG_LIGHT_STATUS_BAR
-                                | View.SYSTEM_UI_FLAG_LAYOUT_FULLSCREEN);
-                    }
-                }
-            }
-        }
-        // Android 4.4 +
-        else if (isAndroid_4_4_Above()) {
-            // 是状态栏
-            if (isStatusBar) {
-                // 添加透明状态栏标记
-                window.addFlags(WindowManager.LayoutParams.FLAG_TRANSLUCENT_STATUS);
-            }
-            // 是虚拟按键栏
-            if (isNavBar) {
-                // 添加透明虚拟按键栏标记
-                window.addFlags(WindowManager.LayoutParams.FLAG_TRANSLUCENT_NAVIGATION);
-            }
-        }
-    }
+    public static final int NAV_MODE_GESTURE = NavigationMode.GESTURE;
 
     /**
-     * Android 4.4+
+     * 窗口泄漏监听（调试用）
      */
-    private static final boolean isAndroid_4_4_Above() {
-        // 当前设备API大于等于19
-        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT;
+    public interface OnWindowLeakListener {
+        /**
+         * 所属Activity已销毁一段时间，GC后窗口依然没有被回收（被其他对象持有）
+         *
+         * @param window        窗口
+         * @param activity      已销毁的Activity
+         * @param retainedBytes 销毁前窗口缓存占用的内存（字节）
+         */
+        void onWindowLeaked(@NonNull Window window, @NonNull Activity activity, int retainedBytes);
     }
 
     /**
-     * Android 5.0+
+     * 系统栏状态监听，
+     * 只在系统栏高度、颜色或可见性变化时回调
      */
-    private static final boolean isAndroid_5_0_Above() {
-        // 当前设备API大于等于21
-        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP;
+    public interface OnSystemBarChangeListener {
+        /**
+         * 系统栏状态变化
+         *
+         * @param window           窗口
+         * @param statusBarHeight  状态栏高度（包含刘海）
+         * @param statusBarColor   状态栏颜色
+         * @param statusBarVisible 状态栏是否可见
+         * @param navBarHeight     虚拟按键栏高度（没有虚拟按键栏时为0）
+         * @param navBarColor      虚拟按键栏颜色
+         * @param navBarVisible    虚拟按键栏是否可见
+         */
+        void onSystemBarChanged(@NonNull Window window,
+                                int statusBarHeight,
+                                @ColorInt int statusBarColor,
+                                boolean statusBarVisible,
+                                int navBarHeight,
+                                @ColorInt int navBarColor,
+                                boolean navBarVisible);
     }
 
     /**
@@ -240,45 +115,53 @@ public final class BarUtils {
                                                boolean clipToPadding,
                                                @ColorInt int color,
                                                @IntRange(from = 0, to = 255) int alpha) {
-        if (!isStatusBar && !isNavBar) {
-            return;
-        }
-        if (!isAndroid_4_4_Above()) {
-            return;
-        }
-        // 获取是否拥有虚拟按键栏
-        boolean hasNavigationBar = Utils.hasNavigationBar(window);
-        isNavBar = isNavBar && hasNavigationBar;
-        // 设置标识
-        setFlags(window, isStatusBar, isNavBar, isBlack, preventShaking);
-        // 计算系统栏背景颜色
-        int barColor = calculateColor(color, alpha);
-        // 需要更改状态栏颜色
-        if (isStatusBar) {
-            if (isAndroid_5_0_Above()) {
-                window.setStatusBarColor(barColor);
-            } else if (isAndroid_4_4_Above()) {
-                View statusBar = getStatusBar(window);
-                if (statusBar.getVisibility() != View.VISIBLE) {
-                    statusBar.setVisibility(View.VISIBLE);
-                }
-                statusBar.setBackgroundColor(barColor);
-            }
-        }
-        // 需要更改虚拟按键栏颜色
-        if (isNavBar) {
-            if (isAndroid_5_0_Above()) {
-                window.setNavigationBarColor(barColor);
-            } else if (isAndroid_4_4_Above()) {
-                View navBar = getNavBar(window);
-                if (navBar.getVisibility() != View.VISIBLE) {
-                    navBar.setVisibility(View.VISIBLE);
-                }
-                navBar.setBackgroundColor(barColor);
-            }
-        }
-        // 设置根布局参数
-        setRootView(rootView, fitSystemWindows, clipToPadding);
+        setSystemBarColor(window,
+                rootView,
+                isStatusBar,
+                isNavBar,
+                preventShaking,
+                isBlack,
+                false,
+                fitSystemWindows,
+                clipToPadding,
+                calculateColor(color, alpha));
+    }
+
+    /**
+     * 设置系统栏颜色（内部源方法）
+     *
+     * @param window           窗口
+     * @param rootView         根布局（可为空）
+     * @param isStatusBar      状态栏
+     * @param isNavBar         虚拟按键栏
+     * @param preventShaking   防止抖动
+     * @param isBlack          状态栏深色字体
+     * @param isNavBlack       虚拟按键栏深色图标
+     * @param fitSystemWindows 系统栏占位
+     * @param clipToPadding    子View不能展示在Padding区域
+     * @param barColor         系统栏背景颜色（已计算透明度）
+     */
+    private static final void setSystemBarColor(@NonNull Window window,
+                                                @Nullable View rootView,
+                                                boolean isStatusBar,
+                                                boolean isNavBar,
+                                                boolean preventShaking,
+                                                boolean isBlack,
+                                                boolean isNavBlack,
+                                                boolean fitSystemWindows,
+                                                boolean clipToPadding,
+                                                @ColorInt int barColor) {
+        BarEngine.apply(window,
+                rootView,
+                BarState.pack(isStatusBar,
+                        isNavBar,
+                        preventShaking,
+                        isBlack,
+                        isNavBlack,
+                        fitSystemWindows,
+                        clipToPadding),
+                barColor,
+                barColor);
     }
 
     /**
@@ -531,60 +414,852 @@ public final class BarUtils {
     }
 
     /**
-     * 计算颜色
+     * 设置状态栏竖直渐变背景（Android 5.0 +，沉浸式透明状态栏，渐变绘制在窗口顶部浮层中），
+     * 渐变只在状态栏高度或颜色变化时重新创建
      *
-     * @param color color值
-     * @param alpha alpha值
+     * @param window           窗口
+     * @param rootView         根布局
+     * @param isBlack          深色字体
+     * @param fitSystemWindows 状态栏占位
+     * @param clipToPadding    子View不能展示在Padding区域
+     * @param colors           渐变颜色（从上到下）
      */
-    private static final @ColorInt
-    int calculateColor(@ColorInt int color,
-                       @IntRange(from = 0, to = 255) int alpha) {
-        return Color.argb(alpha,
-                color >> 16 & 0xff,
-                color >> 8 & 0xff,
-                color & 0xff);
+    public static final void setStatusBarGradient(@NonNull Window window,
+                                                  @NonNull View rootView,
+                                                  boolean isBlack,
+                                                  boolean fitSystemWindows,
+                                                  boolean clipToPadding,
+                                                  @NonNull @ColorInt int[] colors) {
+        BarBackground.setGradient(window,
+                rootView,
+                BarState.pack(true,
+                        false,
+                        true,
+                        isBlack,
+                        false,
+                        fitSystemWindows,
+                        clipToPadding),
+                colors);
+    }
+
+    /**
+     * 设置状态栏竖直渐变背景（Android 5.0 +，默认状态栏占位，子View可以展示在Padding区域）
+     *
+     * @param activity 活动
+     * @param isBlack  深色字体
+     * @param colors   渐变颜色（从上到下）
+     */
+    public static final void setStatusBarGradient(@NonNull Activity activity,
+                                                  boolean isBlack,
+                                                  @NonNull @ColorInt int... colors) {
+        ViewGroup group = activity.findViewById(android.R.id.content);
+        if (group.getChildCount() < 1) {
+            return;
+        }
+        setStatusBarGradient(activity.getWindow(),
+                group.getChildAt(0),
+                isBlack,
+                true,
+                true,
+                colors);
+    }
+
+    /**
+     * 设置状态栏图片背景（Android 5.0 +，沉浸式透明状态栏，图片绘制在窗口顶部浮层中）
+     *
+     * @param window           窗口
+     * @param rootView         根布局
+     * @param isBlack          深色字体
+     * @param fitSystemWindows 状态栏占位
+     * @param clipToPadding    子View不能展示在Padding区域
+     * @param drawable         背景
+     */
+    public static final void setStatusBarDrawable(@NonNull Window window,
+                                                  @NonNull View rootView,
+                                                  boolean isBlack,
+                                                  boolean fitSystemWindows,
+                                                  boolean clipToPadding,
+                                                  @NonNull Drawable drawable) {
+        BarBackground.set(window,
+                rootView,
+                BarState.pack(true,
+                        false,
+                        true,
+                        isBlack,
+                        false,
+                        fitSystemWindows,
+                        clipToPadding),
+                drawable);
+    }
+
+    /**
+     * 清除状态栏渐变、图片背景
+     *
+     * @param window 窗口
+     */
+    public static final void clearStatusBarBackground(@NonNull Window window) {
+        BarBackground.clear(window);
+    }
+
+    /**
+     * 设置对话框（包括BottomSheetDialog等全屏对话框）系统栏颜色，
+     * 根布局为对话框android.R.id.content的第一个子View（没有时只设置窗口）
+     *
+     * @param dialog           对话框
+     * @param isStatusBar      状态栏
+     * @param isNavBar         虚拟按键栏
+     * @param isBlack          深色字体
+     * @param fitSystemWindows 系统栏占位
+     * @param clipToPadding    子View不能展示在Padding区域
+     * @param color            颜色
+     * @param alpha            透明度[0,255]，值越小越透明
+     */
+    public static final void setSystemBarColor(@NonNull Dialog dialog,
+                                               boolean isStatusBar,
+                                               boolean isNavBar,
+                                               boolean isBlack,
+                                               boolean fitSystemWindows,
+                                               boolean clipToPadding,
+                                               @ColorInt int color,
+                                               @IntRange(from = 0, to = 255) int alpha) {
+        Window window = dialog.getWindow();
+        if (null == window) {
+            return;
+        }
+        setSystemBarColor(window,
+                BarEngine.getRootView(window),
+                isStatusBar,
+                isNavBar,
+                true,
+                isBlack,
+                false,
+                fitSystemWindows,
+                clipToPadding,
+                calculateColor(color, alpha));
+    }
+
+    /**
+     * 设置对话框系统栏颜色（默认系统栏占位，子View可以展示在Padding区域，设置状态栏与虚拟按键栏）
+     *
+     * @param dialog  对话框
+     * @param isBlack 深色字体
+     * @param color   颜色
+     */
+    public static final void setSystemBarColor(@NonNull Dialog dialog,
+                                               boolean isBlack,
+                                               @ColorInt int color) {
+        setSystemBarColor(dialog,
+                true,
+                true,
+                isBlack,
+                true,
+                true,
+                color,
+                255);
+    }
+
+    /**
+     * 设置对话框碎片系统栏颜色（请在onStart及之后调用，此时对话框已创建）
+     *
+     * @param fragment         对话框碎片
+     * @param isStatusBar      状态栏
+     * @param isNavBar         虚拟按键栏
+     * @param isBlack          深色字体
+     * @param fitSystemWindows 系统栏占位
+     * @param clipToPadding    子View不能展示在Padding区域
+     * @param color            颜色
+     * @param alpha            透明度[0,255]，值越小越透明
+     */
+    public static final void setSystemBarColor(@NonNull DialogFragment fragment,
+                                               boolean isStatusBar,
+                                               boolean isNavBar,
+                                               boolean isBlack,
+                                               boolean fitSystemWindows,
+                                               boolean clipToPadding,
+                                               @ColorInt int color,
+                                               @IntRange(from = 0, to = 255) int alpha) {
+        Dialog dialog = fragment.getDialog();
+        if (null == dialog) {
+            return;
+        }
+        setSystemBarColor(dialog,
+                isStatusBar,
+                isNavBar,
+                isBlack,
+                fitSystemWindows,
+                clipToPadding,
+                color,
+                alpha);
+    }
+
+    /**
+     * 对话框继承所属Activity已设置的系统栏状态（只修改与对话框窗口当前值不同的部分），
+     * 适用于全屏对话框、BottomSheetDialog等子窗口，请在show之前或之后立即调用
+     *
+     * @param dialog 对话框
+     * @return 所属Activity是否设置过系统栏状态
+     */
+    public static final boolean inheritSystemBarColor(@NonNull Dialog dialog) {
+        Window window = dialog.getWindow();
+        if (null == window) {
+            return false;
+        }
+        Activity activity = dialog.getOwnerActivity();
+        if (null == activity) {
+            activity = WindowRegistry.getActivity(dialog.getContext());
+        }
+        if (null == activity) {
+            return false;
+        }
+        return BarEngine.inherit(activity.getWindow(), window, BarEngine.getRootView(window));
+    }
+
+    /**
+     * 对话框碎片继承所属Activity已设置的系统栏状态（请在onStart及之后调用，此时对话框已创建）
+     *
+     * @param fragment 对话框碎片
+     * @return 所属Activity是否设置过系统栏状态
+     */
+    public static final boolean inheritSystemBarColor(@NonNull DialogFragment fragment) {
+        Dialog dialog = fragment.getDialog();
+        if (null == dialog) {
+            return false;
+        }
+        return inheritSystemBarColor(dialog);
+    }
+
+    /**
+     * 设置系统栏颜色（根据系统栏实际颜色自动选择深色/浅色图标）
+     *
+     * @param window           窗口
+     * @param rootView         根布局
+     * @param isStatusBar      状态栏
+     * @param isNavBar         虚拟按键栏（Android 8.0 + 才支持深色图标）
+     * @param fitSystemWindows 系统栏占位
+     * @param clipToPadding    子View不能展示在Padding区域
+     * @param color            颜色
+     * @param alpha            透明度[0,255]，值越小越透明
+     */
+    public static final void setSystemBarColorAuto(@NonNull Window window,
+                                                   @NonNull View rootView,
+                                                   boolean isStatusBar,
+                                                   boolean isNavBar,
+                                                   boolean fitSystemWindows,
+                                                   boolean clipToPadding,
+                                                   @ColorInt int color,
+                                                   @IntRange(from = 0, to = 255) int alpha) {
+        // 计算系统栏背景颜色
+        int barColor = calculateColor(color, alpha);
+        // 根据系统栏实际颜色选择图标颜色
+        boolean isDark = LuminanceCache.isDarkIcon(window, barColor);
+        setSystemBarColor(window,
+                rootView,
+                isStatusBar,
+                isNavBar,
+                true,
+                isStatusBar && isDark,
+                isDark,
+                fitSystemWindows,
+                clipToPadding,
+                barColor);
+    }
+
+    /**
+     * 设置系统栏颜色（根据系统栏实际颜色自动选择深色/浅色图标）
+     *
+     * @param activity         活动
+     * @param isStatusBar      状态栏
+     * @param isNavBar         虚拟按键栏（Android 8.0 + 才支持深色图标）
+     * @param fitSystemWindows 系统栏占位
+     * @param clipToPadding    子View不能展示在Padding区域
+     * @param color            颜色
+     * @param alpha            透明度[0,255]，值越小越透明
+     */
+    public static final void setSystemBarColorAuto(@NonNull Activity activity,
+                                                   boolean isStatusBar,
+                                                   boolean isNavBar,
+                                                   boolean fitSystemWindows,
+                                                   boolean clipToPadding,
+                                                   @ColorInt int color,
+                                                   @IntRange(from = 0, to = 255) int alpha) {
+        ViewGroup group = activity.findViewById(android.R.id.content);
+        if (group.getChildCount() < 1) {
+            return;
+        }
+        setSystemBarColorAuto(activity.getWindow(),
+                group.getChildAt(0),
+                isStatusBar,
+                isNavBar,
+                fitSystemWindows,
+                clipToPadding,
+                color,
+                alpha);
+    }
+
+    /**
+     * 设置系统栏颜色（默认系统栏占位，子View可以展示在Padding区域，设置状态栏与虚拟按键栏，自动选择图标颜色）
+     *
+     * @param activity 活动
+     * @param color    颜色
+     */
+    public static final void setSystemBarColorAuto(@NonNull Activity activity,
+                                                   @ColorInt int color) {
+        setSystemBarColorAuto(activity,
+                true,
+                true,
+                true,
+                true,
+                color,
+                255);
+    }
+
+    /**
+     * 设置日间/夜间系统栏颜色，
+     * 两套状态在设置时预先计算，夜间模式变化时直接切换，
+     * 之后设置其它系统栏颜色（包括统一切换与请求设置）时清除两套状态，不再切换，
+     * Activity声明configChanges="uiMode"后无需重建即可更新系统栏
+     *
+     * @param window           窗口
+     * @param rootView         根布局
+     * @param isStatusBar      状态栏
+     * @param isNavBar         虚拟按键栏
+     * @param fitSystemWindows 系统栏占位
+     * @param clipToPadding    子View不能展示在Padding区域
+     * @param dayBlack         日间深色字体
+     * @param dayColor         日间颜色
+     * @param dayAlpha         日间透明度[0,255]，值越小越透明
+     * @param nightBlack       夜间深色字体
+     * @param nightColor       夜间颜色
+     * @param nightAlpha       夜间透明度[0,255]，值越小越透明
+     */
+    public static final void setDayNightSystemBarColor(@NonNull Window window,
+                                                       @NonNull View rootView,
+                                                       boolean isStatusBar,
+                                                       boolean isNavBar,
+                                                       boolean fitSystemWindows,
+                                                       boolean clipToPadding,
+                                                       boolean dayBlack,
+                                                       @ColorInt int dayColor,
+                                                       @IntRange(from = 0, to = 255) int dayAlpha,
+                                                       boolean nightBlack,
+                                                       @ColorInt int nightColor,
+                                                       @IntRange(from = 0, to = 255) int nightAlpha) {
+        DayNightPalette.set(window,
+                rootView,
+                BarState.pack(isStatusBar,
+                        isNavBar,
+                        true,
+                        dayBlack,
+                        false,
+                        fitSystemWindows,
+                        clipToPadding),
+                calculateColor(dayColor, dayAlpha),
+                BarState.pack(isStatusBar,
+                        isNavBar,
+                        true,
+                        nightBlack,
+                        false,
+                        fitSystemWindows,
+                        clipToPadding),
+                calculateColor(nightColor, nightAlpha));
     }
 
     /**
-     * 修改 MIUI V6  以上状态栏字体颜色
+     * 设置日间/夜间系统栏颜色（默认系统栏占位，子View可以展示在Padding区域，设置状态栏与虚拟按键栏），
+     * 两套状态在设置时预先计算，夜间模式变化时直接切换，
+     * Activity声明configChanges="uiMode"后无需重建即可更新系统栏
+     *
+     * @param activity   活动
+     * @param dayBlack   日间深色字体
+     * @param dayColor   日间颜色
+     * @param nightBlack 夜间深色字体
+     * @param nightColor 夜间颜色
      */
-    public static final void setMIUIStatusBarDarkIcon(@NonNull Activity activity, boolean darkIcon) {
-        Class<? extends Window> clazz = activity.getWindow().getClass();
-        try {
-            Class<?> layoutParams = Class.forName("android.view.MiuiWindowManager$LayoutParams");
-            Field field = layoutParams.getField("EXTRA_FLAG_STATUS_BAR_DARK_MODE");
-            int darkModeFlag = field.getInt(layoutParams);
-            Method extraFlagField = clazz.getMethod("setExtraFlags", int.class, int.class);
-            extraFlagField.invoke(activity.getWindow(), darkIcon ? darkModeFlag : 0, darkModeFlag);
-        } catch (Exception e) {
-            //e.printStackTrace();
+    public static final void setDayNightSystemBarColor(@NonNull Activity activity,
+                                                       boolean dayBlack,
+                                                       @ColorInt int dayColor,
+                                                       boolean nightBlack,
+                                                       @ColorInt int nightColor) {
+        ViewGroup group = activity.findViewById(android.R.id.content);
+        if (group.getChildCount() < 1) {
+            return;
         }
+        setDayNightSystemBarColor(activity.getWindow(),
+                group.getChildAt(0),
+                true,
+                true,
+                true,
+                true,
+                dayBlack,
+                dayColor,
+                255,
+                nightBlack,
+                nightColor,
+                255);
+    }
+
+    /**
+     * 请求设置系统栏颜色（下一帧应用），
+     * 同一帧内的多次请求只应用最后一次，与已设置的状态相同时不修改窗口，
+     * 适合在每次重组（Jetpack Compose的SideEffect）、滚动或动画回调中调用
+     *
+     * @param window           窗口
+     * @param rootView         根布局（为空时保留已设置的根布局参数）
+     * @param isStatusBar      状态栏
+     * @param isNavBar         虚拟按键栏
+     * @param isBlack          深色字体
+     * @param fitSystemWindows 系统栏占位
+     * @param clipToPadding    子View不能展示在Padding区域
+     * @param color            颜色
+     * @param alpha            透明度[0,255]，值越小越透明
+     * @return 是否需要在下一帧应用
+     */
+    public static final boolean requestSystemBarColor(@NonNull Window window,
+                                                      @Nullable View rootView,
+                                                      boolean isStatusBar,
+                                                      boolean isNavBar,
+                                                      boolean isBlack,
+                                                      boolean fitSystemWindows,
+                                                      boolean clipToPadding,
+                                                      @ColorInt int color,
+                                                      @IntRange(from = 0, to = 255) int alpha) {
+        int barColor = calculateColor(color, alpha);
+        return GlobalTheme.request(window,
+                rootView,
+                BarState.pack(isStatusBar,
+                        isNavBar,
+                        true,
+                        isBlack,
+                        false,
+                        fitSystemWindows,
+                        clipToPadding),
+                barColor,
+                barColor);
     }
 
     /**
-     * 修改魅族状态栏字体颜色 Flyme 4.0
+     * 请求设置系统栏颜色（下一帧应用，保留已设置的根布局参数，设置状态栏与虚拟按键栏），
+     * 同一帧内的多次请求只应用最后一次，与已设置的状态相同时不修改窗口
+     *
+     * @param window  窗口
+     * @param isBlack 深色字体
+     * @param color   颜色
+     * @return 是否需要在下一帧应用
      */
-    public static final void setMeizuStatusBarDarkIcon(@NonNull Activity activity, boolean darkIcon) {
-        try {
-            WindowManager.LayoutParams lp = activity.getWindow().getAttributes();
-            Field darkFlag = WindowManager.LayoutParams.class.getDeclaredField("MEIZU_FLAG_DARK_STATUS_BAR_ICON");
-            Field meizuFlags = WindowManager.LayoutParams.class.getDeclaredField("meizuFlags");
-            darkFlag.setAccessible(true);
-            meizuFlags.setAccessible(true);
-            int bit = darkFlag.getInt(null);
-            int value = meizuFlags.getInt(lp);
-            if (darkIcon) {
-                value |= bit;
-            } else {
-                value &= ~bit;
+    public static final boolean requestSystemBarColor(@NonNull Window window,
+                                                      boolean isBlack,
+                                                      @ColorInt int color) {
+        return requestSystemBarColor(window,
+                null,
+                true,
+                true,
+                isBlack,
+                false,
+                false,
+                color,
+                255);
+    }
+
+    /**
+     * 应用构建时编译的系统栏预设（bar-preset-plugin生成的常量），
+     * 标记位与颜色已在构建时计算，运行时不再打包与计算透明度
+     *
+     * @param window   窗口
+     * @param rootView 根布局（可为空）
+     * @param flags    预设标记位（XXX_FLAGS）
+     * @param color    预设颜色（XXX_COLOR）
+     */
+    public static final void applyPreset(@NonNull Window window,
+                                         @Nullable View rootView,
+                                         int flags,
+                                         @ColorInt int color) {
+        BarEngine.apply(window, rootView, flags, color, color);
+    }
+
+    /**
+     * 应用构建时编译的系统栏预设（bar-preset-plugin生成的常量）
+     *
+     * @param activity 活动
+     * @param flags    预设标记位（XXX_FLAGS）
+     * @param color    预设颜色（XXX_COLOR）
+     */
+    public static final void applyPreset(@NonNull Activity activity,
+                                         int flags,
+                                         @ColorInt int color) {
+        Window window = activity.getWindow();
+        applyPreset(window,
+                BarEngine.getRootView(window),
+                flags,
+                color);
+    }
+
+    /**
+     * 切换所有已设置过系统栏的窗口（Activity、对话框）的系统栏颜色（主题切换），
+     * 保留各窗口原有的系统栏种类与根布局参数，
+     * 可见窗口在下一帧统一应用，不可见窗口延迟到其下次onResume时应用
+     *
+     * @param isBlack 深色字体
+     * @param color   颜色
+     * @param alpha   透明度[0,255]，值越小越透明
+     * @return 切换的窗口数量
+     */
+    public static final int setAllSystemBarColor(boolean isBlack,
+                                                 @ColorInt int color,
+                                                 @IntRange(from = 0, to = 255) int alpha) {
+        return GlobalTheme.apply(calculateColor(color, alpha),
+                isBlack ? GlobalTheme.ICON_DARK : GlobalTheme.ICON_LIGHT);
+    }
+
+    /**
+     * 切换所有已设置过系统栏的窗口（Activity、对话框）的系统栏颜色（主题切换，自动选择图标颜色），
+     * 保留各窗口原有的系统栏种类与根布局参数，
+     * 可见窗口在下一帧统一应用，不可见窗口延迟到其下次onResume时应用
+     *
+     * @param color 颜色
+     * @param alpha 透明度[0,255]，值越小越透明
+     * @return 切换的窗口数量
+     */
+    public static final int setAllSystemBarColorAuto(@ColorInt int color,
+                                                     @IntRange(from = 0, to = 255) int alpha) {
+        return GlobalTheme.apply(calculateColor(color, alpha), GlobalTheme.ICON_AUTO);
+    }
+
+    /**
+     * 系统栏颜色上是否应该使用深色图标（透明度小于255时与窗口背景色混合后再计算）
+     *
+     * @param window 窗口
+     * @param color  颜色
+     * @param alpha  透明度[0,255]，值越小越透明
+     */
+    public static final boolean isDarkIcon(@NonNull Window window,
+                                           @ColorInt int color,
+                                           @IntRange(from = 0, to = 255) int alpha) {
+        return LuminanceCache.isDarkIcon(window, calculateColor(color, alpha));
+    }
+
+    /**
+     * 设置状态栏图标自适应（Android 6.0 +），
+     * 用于透明状态栏（需要先设置系统栏，如{@link #setTransparent}），
+     * 根据状态栏背后内容的亮度自动切换已设置状态中的深色/浅色图标
+     *
+     * @param window  窗口
+     * @param enabled 开启
+     */
+    public static final void setAdaptiveStatusBarIcon(@NonNull Window window, boolean enabled) {
+        // 当前设备API小于23，不支持深色图标
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) {
+            return;
+        }
+        WindowRegistry.Entry entry = enabled
+                ? WindowRegistry.obtain(window)
+                : WindowRegistry.peek(window);
+        if (null == entry) {
+            return;
+        }
+        if (null != entry.sampler) {
+            entry.sampler.stop();
+            entry.sampler = null;
+        }
+        if (enabled) {
+            entry.sampler = new AdaptiveIconSampler(window);
+            entry.sampler.start();
+        }
+    }
+
+    /**
+     * 设置状态栏图标自适应（Android 6.0 +），
+     * 用于透明状态栏（需要先设置系统栏，如{@link #setTransparent}），
+     * 根据状态栏背后内容的亮度自动切换已设置状态中的深色/浅色图标
+     *
+     * @param activity 活动
+     * @param enabled  开启
+     */
+    public static final void setAdaptiveStatusBarIcon(@NonNull Activity activity, boolean enabled) {
+        setAdaptiveStatusBarIcon(activity.getWindow(), enabled);
+    }
+
+    /**
+     * 初始化（可选），
+     * 在Application.onCreate中调用后，进程被回收重建的Activity也能在第一帧之前恢复系统栏状态；
+     * 不调用时，第一次设置系统栏后才开始跟踪Activity生命周期；
+     * 同时在后台线程读取系统栏尺寸的磁盘缓存，冷启动第一次设置系统栏时不再查找系统资源
+     *
+     * @param application 应用
+     */
+    public static final void init(@NonNull Application application) {
+        WindowRegistry.register(application);
+        MetricsStore.load(application);
+    }
+
+    /**
+     * 设置窗口泄漏监听（调试用），
+     * Activity销毁一段时间后触发GC，若其窗口依然没有被回收则回调
+     *
+     * @param listener 监听，为空时关闭
+     */
+    public static final void setOnWindowLeakListener(OnWindowLeakListener listener) {
+        LeakCheck.setListener(listener);
+    }
+
+    /**
+     * 立即检查窗口泄漏（调试用，会触发GC），
+     * 只检查设置泄漏监听后销毁、且已销毁一段时间的Activity的窗口
+     *
+     * @return 泄漏的窗口数量
+     */
+    public static final int checkWindowLeaks() {
+        return LeakCheck.check();
+    }
+
+    /**
+     * 获取已注册的窗口数量
+     */
+    public static final int getRegisteredWindowCount() {
+        return WindowRegistry.size();
+    }
+
+    /**
+     * 获取窗口缓存占用的内存（字节，按对象布局计算本库持有的对象，调试用）
+     */
+    public static final long getRetainedBytes() {
+        return WindowRegistry.retainedBytes();
+    }
+
+    /**
+     * 开启/关闭布局归因（调试用，只在可调试的应用中开启），
+     * 系统栏调用修改了窗口标记、UI可见性或根布局参数后，
+     * 统计之后的布局次数与Insets分发次数，按调用位置累计并输出到Logcat
+     *
+     * @param context 上下文
+     * @param enabled 开启
+     * @return 是否已开启
+     */
+    public static final boolean setLayoutAttributionEnabled(@NonNull Context context, boolean enabled) {
+        return LayoutAttribution.setEnabled(context, enabled);
+    }
+
+    /**
+     * 导出布局归因统计（按引起的布局次数从多到少）
+     *
+     * @param limit 最多导出的调用位置数量
+     * @return 统计，未开启时为空字符串
+     */
+    @NonNull
+    public static final String dumpLayoutAttribution(int limit) {
+        return LayoutAttribution.dump(limit);
+    }
+
+    /**
+     * 添加系统栏状态监听，
+     * 添加时立即回调一次当前状态，之后只在状态栏、虚拟按键栏的高度、颜色或可见性变化时回调，
+     * 在本工具设置系统栏与{@link #onConfigurationChanged(Window)}时检查变化，
+     * 开启{@link #setWatchdogEnabled(Window, boolean)}后窗口属性被其他代码修改时同样会检查，
+     * 窗口销毁后自动移除
+     *
+     * @param window   窗口
+     * @param listener 监听
+     * @return 是否添加（已添加时返回false）
+     */
+    public static final boolean addOnSystemBarChangeListener(@NonNull Window window,
+                                                             @NonNull OnSystemBarChangeListener listener) {
+        WindowRegistry.Entry entry = WindowRegistry.obtain(window);
+        if (null == entry.observers) {
+            entry.observers = new BarObservers();
+        }
+        return entry.observers.add(window, listener);
+    }
+
+    /**
+     * 移除系统栏状态监听
+     *
+     * @param window   窗口
+     * @param listener 监听
+     * @return 是否移除
+     */
+    public static final boolean removeOnSystemBarChangeListener(@NonNull Window window,
+                                                                @NonNull OnSystemBarChangeListener listener) {
+        WindowRegistry.Entry entry = WindowRegistry.peek(window);
+        if (null == entry || null == entry.observers) {
+            return false;
+        }
+        boolean removed = entry.observers.remove(listener);
+        if (entry.observers.isEmpty()) {
+            entry.observers = null;
+        }
+        return removed;
+    }
+
+    /**
+     * 设置系统栏状态守护，
+     * 开启后在窗口属性变化与获得焦点时，
+     * 比较已设置的系统栏状态与窗口实际的标记、可见性与颜色，
+     * 只重新应用被系统（对话框、输入法等）或其他代码重置的部分，
+     * 不需要再在onResume、onWindowFocusChanged中重复设置系统栏
+     *
+     * @param window  窗口
+     * @param enabled 开启
+     */
+    public static final void setWatchdogEnabled(@NonNull Window window, boolean enabled) {
+        WindowRegistry.Entry entry = enabled
+                ? WindowRegistry.obtain(window)
+                : WindowRegistry.peek(window);
+        if (null == entry) {
+            return;
+        }
+        BarWatchdog watchdog = null == entry.watchdog ? null : entry.watchdog.get();
+        if (enabled) {
+            if (null != watchdog && window.getCallback() == watchdog) {
+                return;
             }
-            meizuFlags.setInt(lp, value);
-            activity.getWindow().setAttributes(lp);
-        } catch (Exception e) {
-            //e.printStackTrace();
+            Window.Callback callback = window.getCallback();
+            if (null == callback) {
+                return;
+            }
+            if (null != watchdog) {
+                watchdog.mDisabled = true;
+            }
+            watchdog = new BarWatchdog(window, callback);
+            entry.watchdog = new WeakReference<>(watchdog);
+            window.setCallback(watchdog);
+        } else if (null != watchdog) {
+            // 没有被其他代码再次包装时还原回调，否则只停用
+            if (window.getCallback() == watchdog) {
+                window.setCallback(watchdog.mDelegate);
+            }
+            watchdog.mDisabled = true;
+            entry.watchdog = null;
+        }
+    }
+
+    /**
+     * 设置系统栏状态守护（请在setContentView之后调用）
+     *
+     * @param activity 活动
+     * @param enabled  开启
+     * @see #setWatchdogEnabled(Window, boolean)
+     */
+    public static final void setWatchdogEnabled(@NonNull Activity activity, boolean enabled) {
+        setWatchdogEnabled(activity.getWindow(), enabled);
+    }
+
+    /**
+     * 获取状态栏高度（按窗口所在显示屏与当前姿态缓存）
+     *
+     * @param window 窗口
+     */
+    public static final int getStatusBarHeight(@NonNull Window window) {
+        return BarMetrics.getStatusBarHeight(window);
+    }
+
+    /**
+     * 获取虚拟按键栏高度（按窗口所在显示屏与当前姿态缓存）
+     *
+     * @param window 窗口
+     */
+    public static final int getNavBarHeight(@NonNull Window window) {
+        return BarMetrics.getNavBarHeight(window);
+    }
+
+    /**
+     * 获取刘海屏顶部安全距离（Android 9.0 +，窗口显示后才能获取，按旋转方向缓存）
+     *
+     * @param window 窗口
+     */
+    public static final int getSafeInsetTop(@NonNull Window window) {
+        return BarMetrics.get(window).safeInsetTop;
+    }
+
+    /**
+     * 获取刘海屏底部安全距离（Android 9.0 +，窗口显示后才能获取，按旋转方向缓存）
+     *
+     * @param window 窗口
+     */
+    public static final int getSafeInsetBottom(@NonNull Window window) {
+        return BarMetrics.get(window).safeInsetBottom;
+    }
+
+    /**
+     * 获取顶部实际占用高度（状态栏高度与刘海屏顶部安全距离取较大值）
+     *
+     * @param window 窗口
+     */
+    public static final int getTopInset(@NonNull Window window) {
+        return BarMetrics.getTopInset(window);
+    }
+
+    /**
+     * 是否拥有虚拟按键栏（按窗口所在显示屏与当前姿态缓存）
+     *
+     * @param window 窗口
+     */
+    public static final boolean hasNavigationBar(@NonNull Window window) {
+        return BarMetrics.get(window).hasNavigationBar;
+    }
+
+    /**
+     * 获取系统导航方式（Android 10 + 才有手势导航，低版本返回三按键），
+     * 按配置缓存，切换导航方式后自动重新读取
+     *
+     * @param context 上下文
+     * @return {@link #NAV_MODE_THREE_BUTTON}、{@link #NAV_MODE_TWO_BUTTON}或{@link #NAV_MODE_GESTURE}
+     */
+    public static final int getNavigationMode(@NonNull Context context) {
+        return NavigationMode.get(context);
+    }
+
+    /**
+     * 是否为全面屏手势导航
+     *
+     * @param context 上下文
+     */
+    public static final boolean isGestureNavigation(@NonNull Context context) {
+        return NavigationMode.isGesture(context);
+    }
+
+    /**
+     * 配置变化（旋转、折叠/展开、分屏尺寸、夜间模式变化）后调用，
+     * 立即切换到新姿态的系统栏尺寸（已计算过的姿态不会重新查找资源），
+     * 以及已设置的日间/夜间状态（按窗口自己的配置选择，包括AppCompatDelegate.setLocalNightMode的覆盖）
+     *
+     * @param window 窗口
+     */
+    public static final void onConfigurationChanged(@NonNull Window window) {
+        BarMetrics.invalidate(window);
+        NavigationMode.invalidate();
+        BarMetrics.get(window);
+        // 夜间模式变化时切换日间/夜间状态
+        if (!DayNightPalette.onConfigurationChanged(window)) {
+            // 没有切换时单独通知尺寸变化
+            BarEngine.dispatchChanged(window);
         }
     }
 
+    /**
+     * 配置变化（旋转、折叠/展开、分屏尺寸、夜间模式变化）后调用，
+     * 立即切换到新姿态的系统栏尺寸（已计算过的姿态不会重新查找资源），
+     * 以及已设置的日间/夜间状态（按窗口自己的配置选择，包括AppCompatDelegate.setLocalNightMode的覆盖）
+     *
+     * @param activity 活动
+     */
+    public static final void onConfigurationChanged(@NonNull Activity activity) {
+        onConfigurationChanged(activity.getWindow());
+    }
+
+    /**
+     * 计算颜色
+     *
+     * @param color color值
+     * @param alpha alpha值
+     */
+    private static final @ColorInt
+    int calculateColor(@ColorInt int color,
+                       @IntRange(from = 0, to = 255) int alpha) {
+        return Color.argb(alpha,
+                color >> 16 & 0xff,
+                color >> 8 & 0xff,
+                color & 0xff);
+    }
+
     ////////////////////////////////////////////////////////////////////////////////////////////////
 
     /**
@@ -592,29 +1267,79 @@ public final class BarUtils {
      */
     public static final void setTranslucent(@NonNull Window window,
                                             @NonNull View rootView) {
-        setSystemBarColor(window,
+        setTranslucent(window,
                 rootView,
                 true,
-                true,
-                false,
-                true,
-                true,
-                Color.BLACK,
-                112);
+                true);
     }
 
     /**
      * 设置系统栏半透明
      */
     public static final void setTranslucent(@NonNull Activity activity) {
-        setSystemBarColor(activity,
+        setTranslucent(activity,
                 true,
+                true);
+    }
+
+    /**
+     * 设置系统栏半透明（系统栏占位），
+     * 根布局是自身设置Padding的普通布局（不是CoordinatorLayout、DrawerLayout等）且背景是纯色时，
+     * 直接设置混合后的不透明颜色，省去每帧的透明混合，布局完成后背景有变化时重新混合，
+     * 全面屏手势导航时虚拟按键栏透明且不强制对比度，省去手势条下的遮罩
+     *
+     * @param window      窗口
+     * @param rootView    根布局
+     * @param isStatusBar 状态栏
+     * @param isNavBar    虚拟按键栏
+     */
+    static final void setTranslucent(@NonNull Window window,
+                                     @NonNull View rootView,
+                                     boolean isStatusBar,
+                                     boolean isNavBar) {
+        int translucent = calculateColor(Color.BLACK, 112);
+        int barColor = OpaqueFastPath.resolve(window, rootView, translucent);
+        int navBarColor = barColor;
+        int flags = BarState.pack(isStatusBar,
+                isNavBar,
                 true,
                 false,
+                false,
                 true,
-                true,
-                Color.BLACK,
-                112);
+                true);
+        // 全面屏手势导航没有按键，不需要半透明遮罩，使用透明虚拟按键栏且不强制对比度
+        if (isNavBar && NavigationMode.isGesture(window.getContext())) {
+            navBarColor = Color.TRANSPARENT;
+            flags |= BarState.NAV_CONTRAST_OFF;
+        }
+        BarEngine.apply(window,
+                rootView,
+                flags,
+                barColor,
+                navBarColor);
+        // 根布局或窗口背景变化后重新混合
+        OpaqueFastPath.watch(window, rootView, translucent, barColor);
+    }
+
+    /**
+     * 设置系统栏半透明（系统栏占位）
+     *
+     * @param activity    活动
+     * @param isStatusBar 状态栏
+     * @param isNavBar    虚拟按键栏
+     * @see #setTranslucent(Window, View, boolean, boolean)
+     */
+    static final void setTranslucent(@NonNull Activity activity,
+                                     boolean isStatusBar,
+                                     boolean isNavBar) {
+        ViewGroup group = activity.findViewById(android.R.id.content);
+        if (group.getChildCount() < 1) {
+            return;
+        }
+        setTranslucent(activity.getWindow(),
+                group.getChildAt(0),
+                isStatusBar,
+                isNavBar);
     }
 
     /**
@@ -0,0 +1,229 @@
+package com.brave.system.bar.library;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.ActionMode;
+import android.view.KeyEvent;
+import android.view.KeyboardShortcutGroup;
+import android.view.Menu;
+import android.view.MenuItem;
+import android.view.MotionEvent;
+import android.view.SearchEvent;
+import android.view.View;
+import android.view.Window;
+import android.view.WindowManager;
+import android.view.accessibility.AccessibilityEvent;
+
+import androidx.annotation.NonNull;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 18:30
+ *     <b>desc</b>      ：<pre>
+ *         系统栏状态守护，
+ *         包装窗口的{@link Window.Callback}，
+ *         在窗口属性变化与焦点变化时比较已设置的状态与窗口实际的标记、可见性与颜色，
+ *         只重新应用被系统或其他代码重置的部分
+ *     </pre>
+ * </pre>
+ */
+final class BarWatchdog implements Window.Callback, Runnable {
+    // 主线程
+    private static final Handler sMain = new Handler(Looper.getMainLooper());
+
+    // 窗口
+    private final WeakReference<Window> mWindow;
+    // 原回调
+    final Window.Callback mDelegate;
+    // 是否已安排检查
+    private boolean mScheduled;
+    // 是否已停用
+    boolean mDisabled;
+
+    BarWatchdog(@NonNull Window window, @NonNull Window.Callback delegate) {
+        mWindow = new WeakReference<>(window);
+        mDelegate = delegate;
+    }
+
+    /**
+     * 安排一次检查（合并同一轮消息中的多次变化，等其他代码修改完成后再检查）
+     */
+    private void schedule() {
+        if (mScheduled || mDisabled) {
+            return;
+        }
+        mScheduled = true;
+        sMain.post(this);
+    }
+
+    /**
+     * 检查并重新应用被重置的部分
+     */
+    @Override
+    public void run() {
+        mScheduled = false;
+        Window window = mWindow.get();
+        if (null == window || mDisabled) {
+            return;
+        }
+        WindowRegistry.Entry entry = WindowRegistry.peek(window);
+        if (null == entry || entry.state.isEmpty()) {
+            return;
+        }
+        View rootView = null == entry.rootView ? null : entry.rootView.get();
+        BarEngine.applyState(window, rootView, entry.state);
+    }
+
+    /**
+     * 占用的内存（字节）：守护及其持有的弱引用
+     */
+    int retainedBytes() {
+        return RetainedSize.of(this) + RetainedSize.of(mWindow);
+    }
+
+    @Override
+    public void onWindowAttributesChanged(WindowManager.LayoutParams attrs) {
+        mDelegate.onWindowAttributesChanged(attrs);
+        schedule();
+    }
+
+    @Override
+    public void onWindowFocusChanged(boolean hasFocus) {
+        mDelegate.onWindowFocusChanged(hasFocus);
+        if (hasFocus) {
+            schedule();
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public boolean dispatchKeyEvent(KeyEvent event) {
+        return mDelegate.dispatchKeyEvent(event);
+    }
+
+    @Override
+    public boolean dispatchKeyShortcutEvent(KeyEvent event) {
+        return mDelegate.dispatchKeyShortcutEvent(event);
+    }
+
+    @Override
+    public boolean dispatchTouchEvent(MotionEvent event) {
+        return mDelegate.dispatchTouchEvent(event);
+    }
+
+    @Override
+    public boolean dispatchTrackballEvent(MotionEvent event) {
+        return mDelegate.dispatchTrackballEvent(event);
+    }
+
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB_MR1)
+    @Override
+    public boolean dispatchGenericMotionEvent(MotionEvent event) {
+        return mDelegate.dispatchGenericMotionEvent(event);
+    }
+
+    @Override
+    public boolean dispatchPopulateAccessibilityEvent(AccessibilityEvent event) {
+        return mDelegate.dispatchPopulateAccessibilityEvent(event);
+    }
+
+    @Override
+    public View onCreatePanelView(int featureId) {
+        return mDelegate.onCreatePanelView(featureId);
+    }
+
+    @Override
+    public boolean onCreatePanelMenu(int featureId, Menu menu) {
+        return mDelegate.onCreatePanelMenu(featureId, menu);
+    }
+
+    @Override
+    public boolean onPreparePanel(int featureId, View view, Menu menu) {
+        return mDelegate.onPreparePanel(featureId, view, menu);
+    }
+
+    @Override
+    public boolean onMenuOpened(int featureId, Menu menu) {
+        return mDelegate.onMenuOpened(featureId, menu);
+    }
+
+    @Override
+    public boolean onMenuItemSelected(int featureId, MenuItem item) {
+        return mDelegate.onMenuItemSelected(featureId, item);
+    }
+
+    @Override
+    public void onContentChanged() {
+        mDelegate.onContentChanged();
+    }
+
+    @Override
+    public void onAttachedToWindow() {
+        mDelegate.onAttachedToWindow();
+    }
+
+    @Override
+    public void onDetachedFromWindow() {
+        mDelegate.onDetachedFromWindow();
+    }
+
+    @Override
+    public void onPanelClosed(int featureId, Menu menu) {
+        mDelegate.onPanelClosed(featureId, menu);
+    }
+
+    @Override
+    public boolean onSearchRequested() {
+        return mDelegate.onSearchRequested();
+    }
+
+    @TargetApi(Build.VERSION_CODES.M)
+    @Override
+    public boolean onSearchRequested(SearchEvent searchEvent) {
+        return mDelegate.onSearchRequested(searchEvent);
+    }
+
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    @Override
+    public ActionMode onWindowStartingActionMode(ActionMode.Callback callback) {
+        return mDelegate.onWindowStartingActionMode(callback);
+    }
+
+    @TargetApi(Build.VERSION_CODES.M)
+    @Override
+    public ActionMode onWindowStartingActionMode(ActionMode.Callback callback, int type) {
+        return mDelegate.onWindowStartingActionMode(callback, type);
+    }
+
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    @Override
+    public void onActionModeStarted(ActionMode mode) {
+        mDelegate.onActionModeStarted(mode);
+    }
+
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    @Override
+    public void onActionModeFinished(ActionMode mode) {
+        mDelegate.onActionModeFinished(mode);
+    }
+
+    @TargetApi(Build.VERSION_CODES.N)
+    @Override
+    public void onProvideKeyboardShortcuts(List<KeyboardShortcutGroup> data, Menu menu, int deviceId) {
+        mDelegate.onProvideKeyboardShortcuts(data, menu, deviceId);
+    }
+
+    @TargetApi(Build.VERSION_CODES.O)
+    @Override
+    public void onPointerCaptureChanged(boolean hasCapture) {
+        mDelegate.onPointerCaptureChanged(hasCapture);
+    }
+}
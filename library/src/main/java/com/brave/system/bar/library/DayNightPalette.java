@@ -0,0 +1,167 @@
+package com.brave.system.bar.library;
+
+import android.content.ComponentCallbacks;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.View;
+import android.view.Window;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 17:10
+ *     <b>desc</b>      ：<pre>
+ *         日间/夜间系统栏配色，
+ *         注册时预先计算两套状态，
+ *         窗口自己的夜间模式变化时直接切换已计算的状态，
+ *         显式设置其它状态后清除两套状态，不再切换，
+ *         每个窗口按自己的配置（包括AppCompat的setLocalNightMode等Activity级别的覆盖）选择状态，
+ *         Activity声明configChanges="uiMode"后无需重建即可更新系统栏
+ *     </pre>
+ * </pre>
+ */
+final class DayNightPalette {
+    // 主线程
+    private static final Handler sMain = new Handler(Looper.getMainLooper());
+    // 是否已注册配置变化回调
+    private static boolean sRegistered;
+
+    private DayNightPalette() {
+    }
+
+    /**
+     * 设置窗口的日间/夜间状态，并立即应用当前模式的状态
+     *
+     * @param window     窗口
+     * @param rootView   根布局（可为空）
+     * @param dayFlags   日间标记位
+     * @param dayColor   日间颜色（已计算透明度）
+     * @param nightFlags 夜间标记位
+     * @param nightColor 夜间颜色（已计算透明度）
+     */
+    static void set(@NonNull Window window,
+                    @Nullable View rootView,
+                    int dayFlags,
+                    int dayColor,
+                    int nightFlags,
+                    int nightColor) {
+        WindowRegistry.Entry entry = WindowRegistry.obtain(window);
+        entry.day.set(dayFlags, dayColor, dayColor);
+        entry.night.set(nightFlags, nightColor, nightColor);
+        if (null != rootView) {
+            entry.rootView = new WeakReference<>(rootView);
+        }
+        register(window.getContext());
+        apply(window, entry);
+    }
+
+    /**
+     * 恢复保存的日间/夜间状态（当前状态已恢复），保存后夜间模式有变化时切换
+     *
+     * @param nightMode 保存时窗口的夜间模式
+     */
+    static void restore(@NonNull Window window,
+                        int dayFlags,
+                        int dayStatusBarColor,
+                        int dayNavBarColor,
+                        int nightFlags,
+                        int nightStatusBarColor,
+                        int nightNavBarColor,
+                        int nightMode) {
+        WindowRegistry.Entry entry = WindowRegistry.obtain(window);
+        entry.day.set(dayFlags, dayStatusBarColor, dayNavBarColor);
+        entry.night.set(nightFlags, nightStatusBarColor, nightNavBarColor);
+        entry.nightMode = nightMode;
+        register(window.getContext());
+        switchIfChanged(window, entry);
+    }
+
+    /**
+     * 窗口的夜间模式变化时切换状态
+     *
+     * @return 是否切换了状态
+     */
+    static boolean onConfigurationChanged(@NonNull Window window) {
+        WindowRegistry.Entry entry = WindowRegistry.peek(window);
+        return null != entry && switchIfChanged(window, entry);
+    }
+
+    /**
+     * 窗口设置了日间/夜间状态，且夜间模式与上次应用时不同时切换状态
+     *
+     * @return 是否切换了状态
+     */
+    private static boolean switchIfChanged(@NonNull Window window, @NonNull WindowRegistry.Entry entry) {
+        if (entry.day.isEmpty() || getNightMode(window.getContext()) == entry.nightMode) {
+            return false;
+        }
+        apply(window, entry);
+        return true;
+    }
+
+    /**
+     * 应用窗口当前模式的状态，并记录应用时的夜间模式
+     */
+    private static void apply(@NonNull Window window, @NonNull WindowRegistry.Entry entry) {
+        int nightMode = getNightMode(window.getContext());
+        BarState state = nightMode == Configuration.UI_MODE_NIGHT_YES ? entry.night : entry.day;
+        View rootView = null == entry.rootView ? null : entry.rootView.get();
+        BarEngine.apply(window, rootView, state.flags, state.statusBarColor, state.navBarColor, true);
+        entry.nightMode = nightMode;
+    }
+
+    /**
+     * 获取窗口的夜间模式（按窗口自己的配置，包括AppCompat的setLocalNightMode等Activity级别的覆盖）
+     */
+    private static int getNightMode(@NonNull Context context) {
+        return context.getResources().getConfiguration().uiMode & Configuration.UI_MODE_NIGHT_MASK;
+    }
+
+    /**
+     * 注册配置变化回调（只注册一次），
+     * 任何配置变化（包括旋转、窗口大小变化）都会回调，只切换夜间模式有变化的窗口；
+     * Activity级别的变化由BarUtils.onConfigurationChanged处理
+     */
+    private static void register(@NonNull Context context) {
+        if (sRegistered) {
+            return;
+        }
+        sRegistered = true;
+        context.getApplicationContext().registerComponentCallbacks(new ComponentCallbacks() {
+            @Override
+            public void onConfigurationChanged(@NonNull Configuration newConfig) {
+                // Activity的配置在Application之后更新，等它们更新后再按各自的配置切换（只修改有变化的部分）
+                sMain.removeCallbacks(sSwitchAll);
+                sMain.post(sSwitchAll);
+            }
+
+            @Override
+            public void onLowMemory() {
+            }
+        });
+    }
+
+    // 切换所有设置了日间/夜间状态且夜间模式有变化的窗口
+    private static final Runnable sSwitchAll = new Runnable() {
+        @Override
+        public void run() {
+            ArrayList<WindowRegistry.Entry> entries = WindowRegistry.entries();
+            for (int i = 0, size = entries.size(); i < size; i++) {
+                WindowRegistry.Entry entry = entries.get(i);
+                Window window = entry.get();
+                if (null != window) {
+                    switchIfChanged(window, entry);
+                }
+            }
+        }
+    };
+}
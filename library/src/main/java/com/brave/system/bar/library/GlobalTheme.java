@@ -0,0 +1,253 @@
+package com.brave.system.bar.library;
+
+import android.annotation.TargetApi;
+import android.app.Activity;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+import android.view.View;
+import android.view.Window;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 16:30
+ *     <b>desc</b>      ：<pre>
+ *         全局系统栏主题切换，
+ *         遍历所有设置过系统栏状态的窗口，预先计算新状态，
+ *         可见窗口在同一帧内统一应用，不可见窗口延迟到下次onResume时应用，
+ *         单个窗口的设置请求（如Compose每次重组、列表滚动）同样合并到下一帧，只应用最后一次且有变化的状态
+ *     </pre>
+ * </pre>
+ */
+final class GlobalTheme {
+    // 图标模式：浅色图标
+    static final int ICON_LIGHT = 0;
+    // 图标模式：深色图标
+    static final int ICON_DARK = 1;
+    // 图标模式：根据颜色自动选择
+    static final int ICON_AUTO = 2;
+
+    // 等待下一帧应用的窗口
+    private static final ArrayList<WindowRegistry.Entry> sFrameBatch = new ArrayList<>();
+    // 主线程
+    private static Handler sMain;
+    // 下一帧回调
+    private static Object sFrameCallback;
+    // 是否已安排下一帧
+    private static boolean sScheduled;
+
+    private GlobalTheme() {
+    }
+
+    /**
+     * 切换所有窗口的系统栏颜色
+     *
+     * @param barColor 系统栏颜色（已计算透明度）
+     * @param iconMode 图标模式
+     * @return 切换的窗口数量
+     */
+    static int apply(@ColorInt int barColor, int iconMode) {
+        ArrayList<WindowRegistry.Entry> entries = WindowRegistry.entries();
+        int count = 0;
+        for (int i = 0, size = entries.size(); i < size; i++) {
+            WindowRegistry.Entry entry = entries.get(i);
+            Window window = entry.get();
+            if (null == window || entry.state.isEmpty()) {
+                continue;
+            }
+            boolean isDark = iconMode == ICON_AUTO
+                    ? LuminanceCache.isDarkIcon(window, barColor)
+                    : iconMode == ICON_DARK;
+            // 切换为同一颜色后虚拟按键栏不再透明，恢复强制对比度
+            int flags = entry.state.flags
+                    & ~(BarState.STATUS_BLACK | BarState.NAV_BLACK | BarState.NAV_CONTRAST_OFF);
+            if (isDark) {
+                flags = flags | BarState.STATUS_BLACK;
+                if (iconMode == ICON_AUTO && entry.state.has(BarState.NAV_BAR)) {
+                    flags = flags | BarState.NAV_BLACK;
+                }
+            }
+            entry.pending.set(flags, barColor, barColor);
+            // 统一切换后的颜色替换日间/夜间状态
+            entry.clearPalette();
+            count++;
+            if (isVisible(window)) {
+                if (!sFrameBatch.contains(entry)) {
+                    sFrameBatch.add(entry);
+                }
+            }
+        }
+        if (!sFrameBatch.isEmpty()) {
+            scheduleFrame();
+        }
+        return count;
+    }
+
+    /**
+     * 请求在下一帧设置窗口系统栏状态，
+     * 同一帧内的多次请求只应用最后一次，与已设置的状态相同时不应用
+     *
+     * @param window         窗口
+     * @param rootView       根布局（为空时保留已设置的根布局参数）
+     * @param flags          标记位{@link BarState}
+     * @param statusBarColor 状态栏颜色
+     * @param navBarColor    虚拟按键栏颜色
+     * @return 是否需要在下一帧应用
+     */
+    static boolean request(@NonNull Window window,
+                           @Nullable View rootView,
+                           int flags,
+                           @ColorInt int statusBarColor,
+                           @ColorInt int navBarColor) {
+        if ((flags & (BarState.STATUS_BAR | BarState.NAV_BAR)) == 0
+                || !BarEngine.isAndroid_4_4_Above()) {
+            return false;
+        }
+        int requested = flags;
+        flags = BarEngine.normalize(window, flags);
+        WindowRegistry.Entry entry = WindowRegistry.obtain(window);
+        // 显式请求的状态替换日间/夜间状态
+        entry.clearPalette();
+        entry.strippedFlags = requested & ~flags;
+        if (null == rootView) {
+            int rootFlags = BarState.FIT_SYSTEM_WINDOWS | BarState.CLIP_TO_PADDING;
+            flags = (flags & ~rootFlags) | (entry.state.flags & rootFlags);
+        }
+        boolean rootChanged = null != rootView
+                && (null == entry.rootView || entry.rootView.get() != rootView);
+        if (rootChanged) {
+            entry.rootView = new WeakReference<>(rootView);
+        }
+        // 与已设置的状态相同，取消之前还未应用的请求
+        if (!rootChanged && entry.state.equals(flags, statusBarColor, navBarColor)) {
+            entry.pending.clear();
+            return false;
+        }
+        entry.pending.set(flags, statusBarColor, navBarColor);
+        if (!sFrameBatch.contains(entry)) {
+            sFrameBatch.add(entry);
+        }
+        scheduleFrame();
+        return true;
+    }
+
+    /**
+     * 请求在下一帧设置窗口状态栏颜色，保留已设置（或等待应用）的其他状态
+     *
+     * @param window   窗口
+     * @param color    状态栏颜色（已计算透明度）
+     * @param autoIcon 根据颜色自动选择图标（为false时保留已设置的图标颜色）
+     * @return 是否需要在下一帧应用
+     */
+    static boolean requestStatusBarColor(@NonNull Window window,
+                                         @ColorInt int color,
+                                         boolean autoIcon) {
+        WindowRegistry.Entry entry = WindowRegistry.obtain(window);
+        BarState base = entry.pending.isEmpty() ? entry.state : entry.pending;
+        int flags = base.isEmpty()
+                ? BarState.STATUS_BAR | BarState.PREVENT_SHAKING
+                : base.flags | BarState.STATUS_BAR;
+        if (autoIcon) {
+            flags = LuminanceCache.isDarkIcon(window, color)
+                    ? flags | BarState.STATUS_BLACK
+                    : flags & ~BarState.STATUS_BLACK;
+        }
+        return request(window, null, flags, color, base.navBarColor);
+    }
+
+    /**
+     * Activity可见时应用延迟的状态（Activity及其子窗口）
+     */
+    static void onResumed(@NonNull Activity activity) {
+        ArrayList<WindowRegistry.Entry> entries = WindowRegistry.entries();
+        for (int i = 0, size = entries.size(); i < size; i++) {
+            WindowRegistry.Entry entry = entries.get(i);
+            if (entry.activity.get() == activity) {
+                applyPending(entry);
+            }
+        }
+    }
+
+    /**
+     * 应用窗口条目中延迟的状态
+     */
+    static void applyPending(@NonNull WindowRegistry.Entry entry) {
+        Window window = entry.get();
+        if (null == window || entry.pending.isEmpty()) {
+            return;
+        }
+        entry.state.set(entry.pending);
+        entry.pending.clear();
+        View rootView = null == entry.rootView ? null : entry.rootView.get();
+        BarEngine.applyState(window, rootView, entry.state);
+    }
+
+    /**
+     * 窗口是否可见
+     */
+    private static boolean isVisible(@NonNull Window window) {
+        View decorView = window.getDecorView();
+        return decorView.getWindowVisibility() == View.VISIBLE && decorView.isShown();
+    }
+
+    /**
+     * 安排下一帧统一应用
+     */
+    private static void scheduleFrame() {
+        if (sScheduled) {
+            return;
+        }
+        sScheduled = true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            postFrameCallback();
+        } else {
+            if (null == sMain) {
+                sMain = new Handler(Looper.getMainLooper());
+            }
+            sMain.post(new Runnable() {
+                @Override
+                public void run() {
+                    flush();
+                }
+            });
+        }
+    }
+
+    /**
+     * 使用Choreographer安排下一帧
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static void postFrameCallback() {
+        if (null == sFrameCallback) {
+            sFrameCallback = new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    flush();
+                }
+            };
+        }
+        Choreographer.getInstance().postFrameCallback((Choreographer.FrameCallback) sFrameCallback);
+    }
+
+    /**
+     * 在同一帧内应用所有可见窗口的新状态
+     */
+    private static void flush() {
+        sScheduled = false;
+        // 应用时监听可能发起新的请求，每次重新读取数量
+        for (int i = 0; i < sFrameBatch.size(); i++) {
+            applyPending(sFrameBatch.get(i));
+        }
+        sFrameBatch.clear();
+    }
+}
@@ -0,0 +1,114 @@
+package com.brave.system.bar.library;
+
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.Shader;
+import android.graphics.drawable.Drawable;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 19:10
+ *     <b>desc</b>      ：<pre>
+ *         系统栏竖直渐变背景，
+ *         渐变只在高度或颜色变化时重新创建，
+ *         绘制时不创建任何对象
+ *     </pre>
+ * </pre>
+ */
+final class GradientBarDrawable extends Drawable {
+    // 画笔
+    private final Paint mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    // 渐变颜色（从上到下）
+    private int[] mColors;
+    // 当前渐变对应的高度
+    private int mShaderHeight = -1;
+    // 是否全部不透明
+    private boolean mOpaque;
+
+    GradientBarDrawable(@NonNull @ColorInt int[] colors) {
+        setColors(colors);
+    }
+
+    /**
+     * 设置渐变颜色（与当前颜色相同时不做任何事）
+     *
+     * @return 是否有变化
+     */
+    boolean setColors(@NonNull @ColorInt int[] colors) {
+        if (Arrays.equals(mColors, colors)) {
+            return false;
+        }
+        mColors = colors.clone();
+        mOpaque = true;
+        for (int color : mColors) {
+            if (color >>> 24 != 255) {
+                mOpaque = false;
+                break;
+            }
+        }
+        mShaderHeight = -1;
+        updateShader(getBounds());
+        invalidateSelf();
+        return true;
+    }
+
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+        super.onBoundsChange(bounds);
+        updateShader(bounds);
+    }
+
+    /**
+     * 高度变化时重新创建渐变（竖直渐变与宽度无关）
+     */
+    private void updateShader(@NonNull Rect bounds) {
+        int height = bounds.height();
+        if (height <= 0 || height == mShaderHeight) {
+            return;
+        }
+        mShaderHeight = height;
+        if (mColors.length == 1) {
+            mPaint.setShader(null);
+            mPaint.setColor(mColors[0]);
+        } else {
+            mPaint.setShader(new LinearGradient(0, bounds.top, 0, bounds.bottom,
+                    mColors, null, Shader.TileMode.CLAMP));
+        }
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        canvas.drawRect(getBounds(), mPaint);
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        if (mPaint.getAlpha() != alpha) {
+            mPaint.setAlpha(alpha);
+            invalidateSelf();
+        }
+    }
+
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        mPaint.setColorFilter(colorFilter);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        return mOpaque && mPaint.getAlpha() == 255 ? PixelFormat.OPAQUE : PixelFormat.TRANSLUCENT;
+    }
+}
@@ -0,0 +1,318 @@
+package com.brave.system.bar.library;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+import android.view.Window;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 21:00
+ *     <b>desc</b>      ：<pre>
+ *         布局归因（调试用，只在可调试的应用中开启），
+ *         系统栏调用修改了可能引起布局的属性（窗口标记、UI可见性、根布局参数）后，
+ *         通过{@link ViewTreeObserver}统计之后的布局次数与Insets分发次数（以根布局Padding变化代替），
+ *         按调用位置累计，找出引起布局最多的调用，
+ *         每个窗口只有一个统计，布局算在窗口最近一次调用的位置上，
+ *         没有待处理的布局、超过最多帧数、窗口移除或超时后结束
+ *     </pre>
+ * </pre>
+ */
+final class LayoutAttribution {
+    private static final String TAG = "BarLayoutAttribution";
+    // 最多统计的帧数
+    private static final int MAX_FRAMES = 3;
+    // 最长统计时间（窗口不再绘制时结束统计）
+    private static final long TIMEOUT_MS = 1000;
+    // 调用位置摘要的栈帧数
+    private static final int STACK_DEPTH = 3;
+    // 库自身的包名
+    private static final String PACKAGE = "com.brave.system.bar.library.";
+
+    // 主线程
+    private static final Handler sMain = new Handler(Looper.getMainLooper());
+    // 调用位置统计
+    private static final HashMap<String, Site> sSites = new HashMap<>();
+    // 正在统计的窗口（以装饰布局区分，统计结束时移除）
+    private static final HashMap<View, Tracker> sTrackers = new HashMap<>();
+    // 本次调用中可能引起布局的修改
+    private static int sWrites;
+
+    private LayoutAttribution() {
+    }
+
+    /**
+     * 开启/关闭布局归因
+     *
+     * @return 是否已开启（不可调试的应用不会开启）
+     */
+    static boolean setEnabled(@NonNull Context context, boolean enabled) {
+        boolean debuggable = (context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        BarEngine.sAttribute = enabled && debuggable;
+        if (!BarEngine.sAttribute) {
+            for (Tracker tracker : new ArrayList<>(sTrackers.values())) {
+                tracker.finish();
+            }
+            sSites.clear();
+        }
+        return BarEngine.sAttribute;
+    }
+
+    /**
+     * 开始一次调用
+     */
+    static void begin() {
+        sWrites = 0;
+    }
+
+    /**
+     * 记录调用中的一次修改
+     */
+    static void onCall(@NonNull String call) {
+        // 颜色与背景只会重绘，不会引起布局
+        if ("Window.setStatusBarColor".equals(call)
+                || "Window.setNavigationBarColor".equals(call)
+                || "Window.setNavigationBarContrastEnforced".equals(call)
+                || "View.setBackgroundColor".equals(call)) {
+            return;
+        }
+        sWrites++;
+    }
+
+    /**
+     * 结束一次调用，有可能引起布局的修改时开始统计之后的布局
+     * （窗口正在统计时，之前的布局算在之前的调用上，之后的布局算在本次调用上）
+     */
+    static void end(@NonNull Window window, @Nullable View rootView) {
+        if (sWrites == 0) {
+            return;
+        }
+        sWrites = 0;
+        String site = getCallSite();
+        Site stats = sSites.get(site);
+        if (null == stats) {
+            stats = new Site(site);
+            sSites.put(site, stats);
+        }
+        stats.calls++;
+        View decorView = window.getDecorView();
+        Tracker tracker = sTrackers.get(decorView);
+        if (null == tracker) {
+            tracker = new Tracker(decorView);
+            sTrackers.put(decorView, tracker);
+            tracker.start();
+        }
+        tracker.attribute(stats, rootView);
+    }
+
+    /**
+     * 导出统计（按引起的布局次数从多到少）
+     *
+     * @param limit 最多导出的调用位置数量
+     */
+    @NonNull
+    static String dump(int limit) {
+        ArrayList<Site> sites = new ArrayList<>(sSites.values());
+        Collections.sort(sites, new Comparator<Site>() {
+            @Override
+            public int compare(Site o1, Site o2) {
+                return o2.layouts - o1.layouts;
+            }
+        });
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0, size = Math.min(limit, sites.size()); i < size; i++) {
+            Site site = sites.get(i);
+            builder.append(String.format(Locale.US,
+                    "%d layouts, %d insets, worst %d, %d calls\n    %s\n",
+                    site.layouts, site.insets, site.worst, site.calls, site.stack));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 调用位置：库外的前几个栈帧
+     */
+    @NonNull
+    private static String getCallSite() {
+        StackTraceElement[] stack = new Throwable().getStackTrace();
+        StringBuilder builder = new StringBuilder();
+        int depth = 0;
+        for (StackTraceElement element : stack) {
+            if (element.getClassName().startsWith(PACKAGE)) {
+                continue;
+            }
+            if (depth > 0) {
+                builder.append(" <- ");
+            }
+            builder.append(element.getClassName())
+                    .append('.')
+                    .append(element.getMethodName())
+                    .append('(')
+                    .append(element.getFileName())
+                    .append(':')
+                    .append(element.getLineNumber())
+                    .append(')');
+            if (++depth == STACK_DEPTH) {
+                break;
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 调用位置统计
+     */
+    private static final class Site {
+        // 调用位置摘要
+        final String stack;
+        // 调用次数
+        int calls;
+        // 引起的布局次数
+        int layouts;
+        // 引起的Insets分发次数
+        int insets;
+        // 单次调用引起的最多布局次数
+        int worst;
+
+        Site(@NonNull String stack) {
+            this.stack = stack;
+        }
+    }
+
+    /**
+     * 统计窗口最近一次调用之后的布局，直到没有待处理的布局请求、超过最多帧数、窗口移除或超时
+     */
+    private static final class Tracker implements ViewTreeObserver.OnGlobalLayoutListener,
+            ViewTreeObserver.OnPreDrawListener,
+            View.OnAttachStateChangeListener,
+            Runnable {
+        private final View mDecorView;
+        // 最近一次调用的位置
+        private Site mSite;
+        private View mRootView;
+        // 根布局Padding
+        private int mPaddingLeft;
+        private int mPaddingTop;
+        private int mPaddingRight;
+        private int mPaddingBottom;
+        // 布局次数
+        private int mLayouts;
+        // Insets分发次数
+        private int mInsets;
+        // 已统计的帧数
+        private int mFrames;
+
+        Tracker(@NonNull View decorView) {
+            mDecorView = decorView;
+        }
+
+        void start() {
+            ViewTreeObserver observer = mDecorView.getViewTreeObserver();
+            observer.addOnGlobalLayoutListener(this);
+            observer.addOnPreDrawListener(this);
+            mDecorView.addOnAttachStateChangeListener(this);
+        }
+
+        /**
+         * 之后的布局算在新的调用位置上（之前的布局计入之前的位置）
+         */
+        void attribute(@NonNull Site site, @Nullable View rootView) {
+            if (null != mSite) {
+                report();
+            }
+            mSite = site;
+            mRootView = rootView;
+            mLayouts = 0;
+            mInsets = 0;
+            mFrames = 0;
+            savePadding();
+            sMain.removeCallbacks(this);
+            sMain.postDelayed(this, TIMEOUT_MS);
+        }
+
+        @Override
+        public void onGlobalLayout() {
+            mLayouts++;
+            if (null != mRootView
+                    && (mRootView.getPaddingLeft() != mPaddingLeft
+                    || mRootView.getPaddingTop() != mPaddingTop
+                    || mRootView.getPaddingRight() != mPaddingRight
+                    || mRootView.getPaddingBottom() != mPaddingBottom)) {
+                mInsets++;
+                savePadding();
+            }
+        }
+
+        @Override
+        public boolean onPreDraw() {
+            mFrames++;
+            if (mFrames >= MAX_FRAMES || !mDecorView.isLayoutRequested()) {
+                finish();
+            }
+            return true;
+        }
+
+        @Override
+        public void onViewAttachedToWindow(View v) {
+        }
+
+        @Override
+        public void onViewDetachedFromWindow(View v) {
+            finish();
+        }
+
+        // 超时
+        @Override
+        public void run() {
+            finish();
+        }
+
+        private void savePadding() {
+            if (null != mRootView) {
+                mPaddingLeft = mRootView.getPaddingLeft();
+                mPaddingTop = mRootView.getPaddingTop();
+                mPaddingRight = mRootView.getPaddingRight();
+                mPaddingBottom = mRootView.getPaddingBottom();
+            }
+        }
+
+        private void report() {
+            mSite.layouts += mLayouts;
+            mSite.insets += mInsets;
+            mSite.worst = Math.max(mSite.worst, mLayouts);
+            if (mLayouts > 0) {
+                Log.d(TAG, mLayouts + " layouts, " + mInsets + " insets <- " + mSite.stack);
+            }
+        }
+
+        void finish() {
+            if (sTrackers.get(mDecorView) != this) {
+                return;
+            }
+            sTrackers.remove(mDecorView);
+            sMain.removeCallbacks(this);
+            mDecorView.removeOnAttachStateChangeListener(this);
+            ViewTreeObserver observer = mDecorView.getViewTreeObserver();
+            if (observer.isAlive()) {
+                observer.removeGlobalOnLayoutListener(this);
+                observer.removeOnPreDrawListener(this);
+            }
+            report();
+        }
+    }
+}
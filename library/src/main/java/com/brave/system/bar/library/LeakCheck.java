@@ -0,0 +1,139 @@
+package com.brave.system.bar.library;
+
+import android.app.Activity;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.Window;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 19:40
+ *     <b>desc</b>      ：<pre>
+ *         窗口泄漏检查（调试用），
+ *         Activity销毁时记录其窗口（弱引用）并从注册表移除，
+ *         延迟后触发GC，窗口依然没有被回收时视为泄漏，
+ *         从{@link WindowRegistry}中拆分出来，
+ *         只在设置泄漏监听或主动检查时加载，不影响设置系统栏颜色的首次调用
+ *     </pre>
+ * </pre>
+ */
+final class LeakCheck {
+    // Activity销毁后检查泄漏的延迟（毫秒）
+    private static final long LEAK_CHECK_DELAY_MS = 5000;
+    // 主线程
+    private static final Handler sMain = new Handler(Looper.getMainLooper());
+    // 等待检查的窗口
+    private static final ArrayList<Watched> sWatched = new ArrayList<>();
+    // 泄漏监听
+    private static BarUtils.OnWindowLeakListener sListener;
+
+    private LeakCheck() {
+    }
+
+    /**
+     * 已销毁Activity的窗口
+     */
+    private static final class Watched {
+        // 窗口
+        final WeakReference<Window> window;
+        // 已销毁的Activity
+        final WeakReference<Activity> activity;
+        // 移除时窗口条目占用的内存
+        final int retainedBytes;
+        // 销毁时间
+        final long destroyedAt;
+
+        Watched(@NonNull Window window, @NonNull Activity activity, int retainedBytes) {
+            this.window = new WeakReference<>(window);
+            this.activity = new WeakReference<>(activity);
+            this.retainedBytes = retainedBytes;
+            this.destroyedAt = SystemClock.uptimeMillis();
+        }
+    }
+
+    /**
+     * 设置泄漏监听
+     */
+    static void setListener(@Nullable BarUtils.OnWindowLeakListener listener) {
+        sListener = listener;
+        WindowRegistry.sCheckLeaks = null != listener;
+        if (null == listener) {
+            sMain.removeCallbacks(sCheck);
+            sWatched.clear();
+        }
+    }
+
+    /**
+     * 记录已销毁Activity的窗口，延迟检查（合并短时间内的多次销毁）
+     */
+    static void watch(@NonNull WindowRegistry.Entry entry, @NonNull Activity activity) {
+        Window window = entry.get();
+        if (null == window) {
+            return;
+        }
+        sWatched.add(new Watched(window, activity, entry.retainedBytes()));
+        sMain.removeCallbacks(sCheck);
+        sMain.postDelayed(sCheck, LEAK_CHECK_DELAY_MS);
+    }
+
+    /**
+     * 检查泄漏：Activity销毁超过{@link #LEAK_CHECK_DELAY_MS}，GC后窗口依然没有被回收
+     *
+     * @return 泄漏的窗口数量
+     */
+    static int check() {
+        if (sWatched.isEmpty()) {
+            return 0;
+        }
+        // 触发GC，让已经没有引用的窗口被回收
+        Runtime.getRuntime().gc();
+        System.runFinalization();
+        long now = SystemClock.uptimeMillis();
+        int count = 0;
+        for (int i = sWatched.size() - 1; i >= 0; i--) {
+            Watched watched = sWatched.get(i);
+            Window window = watched.window.get();
+            if (null == window) {
+                // 已回收
+                sWatched.remove(i);
+                continue;
+            }
+            if (now - watched.destroyedAt < LEAK_CHECK_DELAY_MS) {
+                // 刚销毁，下次再检查
+                continue;
+            }
+            sWatched.remove(i);
+            Activity activity = watched.activity.get();
+            if (null == activity) {
+                continue;
+            }
+            count++;
+            if (null != sListener) {
+                sListener.onWindowLeaked(window, activity, watched.retainedBytes);
+            }
+        }
+        // 还有刚销毁的窗口，稍后再检查
+        if (!sWatched.isEmpty()) {
+            sMain.removeCallbacks(sCheck);
+            sMain.postDelayed(sCheck, LEAK_CHECK_DELAY_MS);
+        }
+        return count;
+    }
+
+    // 延迟检查
+    private static final Runnable sCheck = new Runnable() {
+        @Override
+        public void run() {
+            check();
+        }
+    };
+}
@@ -0,0 +1,35 @@
+package com.brave.system.bar.library;
+
+import androidx.annotation.Nullable;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 19:10
+ *     <b>desc</b>      ：<pre>
+ *         Android 4.4系统栏代理的查找，
+ *         只在第一次使用时加载，Android 5.0以上不会加载此类
+ *     </pre>
+ * </pre>
+ */
+final class LegacyBar {
+    // 代理（没有依赖library-legacy时为空）
+    @Nullable
+    static final LegacyBarDelegate DELEGATE = load();
+
+    private LegacyBar() {
+    }
+
+    /**
+     * 通过反射创建代理
+     */
+    @Nullable
+    private static LegacyBarDelegate load() {
+        try {
+            return (LegacyBarDelegate) Class.forName(LegacyBarDelegate.IMPL).newInstance();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
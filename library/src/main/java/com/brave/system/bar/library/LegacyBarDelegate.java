@@ -0,0 +1,37 @@
+package com.brave.system.bar.library;
+
+import android.view.View;
+import android.view.Window;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 19:10
+ *     <b>desc</b>      ：<pre>
+ *         Android 4.4系统栏代理（内部接口），
+ *         由library-legacy模块实现，
+ *         核心库只在Android 4.4上通过反射查找实现，
+ *         没有依赖library-legacy时Android 4.4只设置透明系统栏标记
+ *     </pre>
+ * </pre>
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public interface LegacyBarDelegate {
+    // 实现类名
+    String IMPL = "com.brave.system.bar.legacy.KitKatBarDelegate";
+
+    /**
+     * 获取（创建）系统栏View
+     *
+     * @param window      窗口
+     * @param isStatusBar 是状态栏
+     * @param barHeight   系统栏高度
+     * @return 系统栏View
+     */
+    @NonNull
+    View getBar(@NonNull Window window, boolean isStatusBar, int barHeight);
+}
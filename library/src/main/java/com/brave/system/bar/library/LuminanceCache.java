@@ -0,0 +1,168 @@
+package com.brave.system.bar.library;
+
+import android.content.Context;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.util.TypedValue;
+import android.view.Window;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 10:12
+ *     <b>desc</b>      ：<pre>
+ *         系统栏颜色亮度计算（带缓存），
+ *         用于根据系统栏实际颜色自动选择深色/浅色图标
+ *     </pre>
+ * </pre>
+ */
+final class LuminanceCache {
+    // 缓存容量（必须是2的幂）
+    private static final int CAPACITY = 32;
+    // 缓存下标掩码
+    private static final int MASK = CAPACITY - 1;
+    // 黑色与白色对比度相等时的相对亮度阈值，大于它时使用深色图标
+    private static final float DARK_ICON_THRESHOLD = 0.179f;
+    // 缓存的颜色（只缓存不透明颜色，alpha恒为0xff，所以0可以作为空位标记）
+    private static final int[] sKeys = new int[CAPACITY];
+    // 缓存的相对亮度
+    private static final float[] sValues = new float[CAPACITY];
+    // sRGB通道值[0,255]对应的线性值（只读，可在任意线程使用）
+    private static final float[] LINEAR = new float[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            float c = i / 255f;
+            LINEAR[i] = c <= 0.03928f ? c / 12.92f : (float) Math.pow((c + 0.055f) / 1.055f, 2.4f);
+        }
+    }
+
+    private LuminanceCache() {
+    }
+
+    /**
+     * 获取不透明颜色的相对亮度[0.0,1.0]
+     *
+     * @param opaqueColor 不透明颜色
+     */
+    static float luminance(@ColorInt int opaqueColor) {
+        int key = opaqueColor | 0xff000000;
+        int index = (key ^ (key >>> 16)) & MASK;
+        // 命中缓存
+        if (sKeys[index] == key) {
+            return sValues[index];
+        }
+        float value = compute(key);
+        sKeys[index] = key;
+        sValues[index] = value;
+        return value;
+    }
+
+    /**
+     * 计算颜色的相对亮度[0.0,1.0]（不经过缓存，忽略透明度，可在任意线程使用）
+     *
+     * @param color 颜色
+     */
+    static float compute(@ColorInt int color) {
+        return 0.2126f * LINEAR[color >> 16 & 0xff]
+                + 0.7152f * LINEAR[color >> 8 & 0xff]
+                + 0.0722f * LINEAR[color & 0xff];
+    }
+
+    /**
+     * 不透明颜色上是否应该使用深色图标
+     *
+     * @param opaqueColor 不透明颜色
+     */
+    static boolean isDarkIcon(@ColorInt int opaqueColor) {
+        return luminance(opaqueColor) > DARK_ICON_THRESHOLD;
+    }
+
+    /**
+     * 系统栏颜色上是否应该使用深色图标（透明度小于255时与窗口背景色混合后再计算）
+     *
+     * @param window 窗口
+     * @param color  颜色（{@link BarUtils}计算后的颜色）
+     */
+    static boolean isDarkIcon(@NonNull Window window, @ColorInt int color) {
+        int alpha = color >>> 24;
+        if (alpha < 255) {
+            color = composite(color, getWindowBackgroundColor(window));
+        }
+        return isDarkIcon(color);
+    }
+
+    /**
+     * 把半透明颜色混合到不透明背景色上
+     *
+     * @param color      颜色
+     * @param background 不透明背景色
+     */
+    static @ColorInt
+    int composite(@ColorInt int color, @ColorInt int background) {
+        int alpha = color >>> 24;
+        if (alpha == 255) {
+            return color;
+        }
+        return 0xff000000
+                | blend(color >> 16 & 0xff, background >> 16 & 0xff, alpha) << 16
+                | blend(color >> 8 & 0xff, background >> 8 & 0xff, alpha) << 8
+                | blend(color & 0xff, background & 0xff, alpha);
+    }
+
+    /**
+     * 获取窗口背景色（不透明），
+     * 优先使用装饰布局的纯色背景，否则使用主题的colorBackground，都没有时视为白色
+     */
+    static @ColorInt
+    int getWindowBackgroundColor(@NonNull Window window) {
+        Drawable background = window.getDecorView().getBackground();
+        WindowRegistry.Entry entry = WindowRegistry.obtain(window);
+        // 窗口背景没有变化时使用缓存
+        if (entry.backgroundColor != 0
+                && null != entry.background
+                && entry.background.get() == background) {
+            return entry.backgroundColor;
+        }
+        entry.background = new WeakReference<>(background);
+        entry.backgroundColor = resolveBackgroundColor(window, background);
+        return entry.backgroundColor;
+    }
+
+    /**
+     * 解析窗口背景色（不透明）
+     */
+    private static @ColorInt
+    int resolveBackgroundColor(@NonNull Window window, Drawable background) {
+        if (background instanceof ColorDrawable) {
+            int color = ((ColorDrawable) background).getColor();
+            if (color >>> 24 == 255) {
+                return color;
+            }
+        }
+        Context context = window.getContext();
+        TypedValue value = new TypedValue();
+        if (context.getTheme().resolveAttribute(android.R.attr.colorBackground, value, true)
+                && value.type >= TypedValue.TYPE_FIRST_COLOR_INT
+                && value.type <= TypedValue.TYPE_LAST_COLOR_INT) {
+            return value.data | 0xff000000;
+        }
+        return 0xffffffff;
+    }
+
+    /**
+     * 单个颜色通道混合
+     */
+    private static int blend(@IntRange(from = 0, to = 255) int foreground,
+                             @IntRange(from = 0, to = 255) int background,
+                             @IntRange(from = 0, to = 255) int alpha) {
+        return (foreground * alpha + background * (255 - alpha) + 127) / 255;
+    }
+}
@@ -0,0 +1,283 @@
+package com.brave.system.bar.library;
+
+import android.content.Context;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.View;
+import android.view.ViewTreeObserver;
+import android.view.Window;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 23:40
+ *     <b>desc</b>      ：<pre>
+ *         系统栏尺寸磁盘缓存，
+ *         把已计算的尺寸按{@link BarMetrics}的缓存Key保存到一个小的二进制文件中，整个文件以Build.FINGERPRINT区分，
+ *         初始化时在后台线程读取，冷启动第一次设置系统栏时直接使用，不再查找系统资源，
+ *         使用过的缓存值在窗口第一帧之后与实际值比较，不一致时替换并重新保存
+ *     </pre>
+ * </pre>
+ */
+final class MetricsStore {
+    // 文件名
+    private static final String FILE_NAME = "system_bar_metrics.bin";
+    // 文件标识
+    private static final int MAGIC = 0x53424d43;
+    // 文件格式版本（修改格式或BarMetrics的缓存Key时加1）
+    private static final int VERSION = 1;
+    // 最多保存的尺寸数量（与内存缓存相同）
+    private static final int MAX_ENTRIES = BarMetrics.MAX_CACHED;
+    // 计算出新尺寸后延迟保存的时间（合并启动期间的多次计算）
+    private static final long SAVE_DELAY_MS = 3000;
+
+    // 主线程
+    private static final Handler sMain = new Handler(Looper.getMainLooper());
+    // 缓存文件（后台线程设置）
+    private static volatile File sFile;
+    // 从文件读取的尺寸（按使用顺序从久到近排列，后台线程读取完成后设置一次，之后只读）
+    private static volatile LinkedHashMap<Long, BarMetrics> sLoaded;
+    // 是否已开始读取
+    private static boolean sStarted;
+    // 是否已安排保存
+    private static boolean sSaveScheduled;
+    // 是否关闭磁盘读写（测试用，关闭后不启动后台线程）
+    @VisibleForTesting
+    static boolean sDisabled;
+
+    private MetricsStore() {
+    }
+
+    /**
+     * 在后台线程读取缓存文件（只读取一次）
+     */
+    static void load(@NonNull Context context) {
+        if (sStarted || sDisabled) {
+            return;
+        }
+        sStarted = true;
+        final Context application = context.getApplicationContext();
+        BarMetrics.sPersist = true;
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                // getCacheDir可能创建目录，同样放在后台线程
+                File file = new File(application.getCacheDir(), FILE_NAME);
+                sFile = file;
+                sLoaded = read(file);
+            }
+        }, "SystemBarMetrics").start();
+    }
+
+    /**
+     * 丢弃已读取的尺寸与等待的保存，下次调用{@link #load(Context)}时重新读取（测试用）
+     */
+    @VisibleForTesting
+    static void reset() {
+        sMain.removeCallbacks(sSave);
+        sSaveScheduled = false;
+        sStarted = false;
+        sLoaded = null;
+        sFile = null;
+        BarMetrics.sPersist = false;
+    }
+
+    /**
+     * 获取从文件读取的尺寸（还没有读取完成或没有时返回空）
+     */
+    @Nullable
+    static BarMetrics peek(long key) {
+        LinkedHashMap<Long, BarMetrics> loaded = sLoaded;
+        return null == loaded ? null : loaded.get(key);
+    }
+
+    /**
+     * 窗口第一帧之后用实际值校验使用过的缓存值
+     */
+    static void verifyAfterFirstFrame(@NonNull Window window, final long key, @NonNull final BarMetrics cached) {
+        final WeakReference<Window> reference = new WeakReference<>(window);
+        final View decorView = window.getDecorView();
+        decorView.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                ViewTreeObserver observer = decorView.getViewTreeObserver();
+                if (observer.isAlive()) {
+                    observer.removeOnPreDrawListener(this);
+                }
+                // 等这一帧绘制完成后再校验
+                sMain.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        Window window = reference.get();
+                        if (null != window) {
+                            BarMetrics.verify(window, key, cached);
+                        }
+                    }
+                });
+                return true;
+            }
+        });
+    }
+
+    /**
+     * 计算出新的尺寸，延迟保存
+     */
+    static void onComputed() {
+        if (sSaveScheduled) {
+            return;
+        }
+        sSaveScheduled = true;
+        sMain.postDelayed(sSave, SAVE_DELAY_MS);
+    }
+
+    // 复制当前尺寸（主线程），在后台线程写入
+    private static final Runnable sSave = new Runnable() {
+        @Override
+        public void run() {
+            sSaveScheduled = false;
+            final File file = sFile;
+            final LinkedHashMap<Long, BarMetrics> loaded = sLoaded;
+            // 还没有读取完成，稍后再保存，避免覆盖还没有读取的文件
+            if (null == file || null == loaded) {
+                onComputed();
+                return;
+            }
+            final LinkedHashMap<Long, BarMetrics> snapshot = BarMetrics.snapshot();
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    write(file, merge(loaded, snapshot));
+                }
+            }, "SystemBarMetrics").start();
+        }
+    };
+
+    /**
+     * 合并文件中的尺寸与本次使用过的尺寸（本次使用过的最近），保存时保留最近使用的部分
+     */
+    @NonNull
+    private static LinkedHashMap<Long, BarMetrics> merge(@NonNull LinkedHashMap<Long, BarMetrics> loaded,
+                                                         @NonNull LinkedHashMap<Long, BarMetrics> used) {
+        LinkedHashMap<Long, BarMetrics> merged = new LinkedHashMap<>(loaded);
+        for (Map.Entry<Long, BarMetrics> entry : used.entrySet()) {
+            merged.remove(entry.getKey());
+            merged.put(entry.getKey(), entry.getValue());
+        }
+        return merged;
+    }
+
+    /**
+     * 读取缓存文件（按保存时的使用顺序），文件不存在、已损坏或系统版本不同时返回空集合
+     */
+    @NonNull
+    private static LinkedHashMap<Long, BarMetrics> read(@NonNull File file) {
+        LinkedHashMap<Long, BarMetrics> result = new LinkedHashMap<>();
+        if (!file.isFile()) {
+            return result;
+        }
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readInt() != MAGIC
+                    || in.readInt() != VERSION
+                    || !String.valueOf(Build.FINGERPRINT).equals(in.readUTF())) {
+                return result;
+            }
+            int count = Math.min(in.readInt(), MAX_ENTRIES);
+            for (int i = 0; i < count; i++) {
+                long key = in.readLong();
+                int statusBarHeight = in.readInt();
+                int navBarHeight = in.readInt();
+                boolean hasNavigationBar = in.readBoolean();
+                boolean fromInsets = in.readBoolean();
+                int safeInsetTop = in.readInt();
+                int safeInsetBottom = in.readInt();
+                result.put(key, new BarMetrics(statusBarHeight,
+                        navBarHeight,
+                        hasNavigationBar,
+                        fromInsets,
+                        safeInsetTop,
+                        safeInsetBottom));
+            }
+        } catch (IOException e) {
+            // 文件已损坏，丢弃已读取的部分
+            result.clear();
+        } finally {
+            close(in);
+        }
+        return result;
+    }
+
+    /**
+     * 写入缓存文件（只保留最近使用的部分，先写入临时文件再替换，避免写入中断时损坏）
+     */
+    private static void write(@NonNull File file, @NonNull LinkedHashMap<Long, BarMetrics> metrics) {
+        File temp = new File(file.getPath() + ".tmp");
+        DataOutputStream out = null;
+        boolean written = false;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(String.valueOf(Build.FINGERPRINT));
+            int count = Math.min(metrics.size(), MAX_ENTRIES);
+            out.writeInt(count);
+            // 跳过最久没有使用的部分
+            int skip = metrics.size() - count;
+            for (Map.Entry<Long, BarMetrics> entry : metrics.entrySet()) {
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+                BarMetrics value = entry.getValue();
+                out.writeLong(entry.getKey());
+                out.writeInt(value.statusBarHeight);
+                out.writeInt(value.navBarHeight);
+                out.writeBoolean(value.hasNavigationBar);
+                out.writeBoolean(value.fromInsets);
+                out.writeInt(value.safeInsetTop);
+                out.writeInt(value.safeInsetBottom);
+            }
+            out.close();
+            out = null;
+            written = temp.renameTo(file);
+        } catch (IOException e) {
+            //e.printStackTrace();
+        } finally {
+            close(out);
+            if (!written) {
+                temp.delete();
+            }
+        }
+    }
+
+    private static void close(@Nullable Closeable closeable) {
+        if (null == closeable) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            //e.printStackTrace();
+        }
+    }
+}
@@ -147,33 +147,64 @@ public final class NavBarUtils {
     }
 
     /**
-     * 设置虚拟按键栏半透明
+     * 设置虚拟按键栏颜色（默认虚拟按键栏占位，子View可以展示在Padding区域，根据虚拟按键栏实际颜色自动选择图标颜色（Android 8.0 + 才支持深色图标））
+     *
+     * @param window   窗口
+     * @param rootView 根布局
+     * @param color    颜色
+     * @param alpha    透明度[0,255]，值越小越透明
      */
-    public static final void setTranslucent(@NonNull Window window,
-                                            @NonNull View rootView) {
-        BarUtils.setSystemBarColor(window,
+    public static final void setColorAuto(@NonNull Window window,
+                                          @NonNull View rootView,
+                                          @ColorInt int color,
+                                          @IntRange(from = 0, to = 255) int alpha) {
+        BarUtils.setSystemBarColorAuto(window,
                 rootView,
                 false,
                 true,
-                false,
                 true,
                 true,
-                Color.BLACK,
-                112);
+                color,
+                alpha);
     }
 
     /**
-     * 设置虚拟按键栏半透明
+     * 设置虚拟按键栏颜色（默认虚拟按键栏占位，子View可以展示在Padding区域，根据虚拟按键栏实际颜色自动选择图标颜色（Android 8.0 + 才支持深色图标））
+     *
+     * @param activity 活动
+     * @param color    颜色
+     * @param alpha    透明度[0,255]，值越小越透明
      */
-    public static final void setTranslucent(@NonNull Activity activity) {
-        BarUtils.setSystemBarColor(activity,
+    public static final void setColorAuto(@NonNull Activity activity,
+                                          @ColorInt int color,
+                                          @IntRange(from = 0, to = 255) int alpha) {
+        BarUtils.setSystemBarColorAuto(activity,
                 false,
                 true,
-                false,
                 true,
                 true,
-                Color.BLACK,
-                112);
+                color,
+                alpha);
+    }
+
+    /**
+     * 设置虚拟按键栏半透明
+     */
+    public static final void setTranslucent(@NonNull Window window,
+                                            @NonNull View rootView) {
+        BarUtils.setTranslucent(window,
+                rootView,
+                false,
+                true);
+    }
+
+    /**
+     * 设置虚拟按键栏半透明
+     */
+    public static final void setTranslucent(@NonNull Activity activity) {
+        BarUtils.setTranslucent(activity,
+                false,
+                true);
     }
 
     /**
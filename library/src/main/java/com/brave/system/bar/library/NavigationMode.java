@@ -0,0 +1,78 @@
+package com.brave.system.bar.library;
+
+import android.content.Context;
+import android.content.res.Resources;
+
+import androidx.annotation.NonNull;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 22:00
+ *     <b>desc</b>      ：<pre>
+ *         系统导航方式（三按键、两按键、全面屏手势），
+ *         读取系统资源config_navBarInteractionMode（Android 10 +，低版本视为三按键），
+ *         切换导航方式时系统会更新配置，按配置缓存，配置变化后重新读取
+ *     </pre>
+ * </pre>
+ */
+final class NavigationMode {
+    // 三按键导航
+    static final int THREE_BUTTON = 0;
+    // 两按键导航
+    static final int TWO_BUTTON = 1;
+    // 全面屏手势导航
+    static final int GESTURE = 2;
+
+    // 导航方式（-1表示未读取）
+    private static int sMode = -1;
+    // 读取时的配置
+    private static int sConfigHash;
+
+    private NavigationMode() {
+    }
+
+    /**
+     * 获取导航方式
+     */
+    static int get(@NonNull Context context) {
+        Resources resources = context.getResources();
+        // 切换导航方式会更新资源配置（资源覆盖序号）
+        int configHash = resources.getConfiguration().hashCode();
+        if (sMode < 0 || sConfigHash != configHash) {
+            sMode = read(resources);
+            sConfigHash = configHash;
+        }
+        return sMode;
+    }
+
+    /**
+     * 是否为全面屏手势导航
+     */
+    static boolean isGesture(@NonNull Context context) {
+        return get(context) == GESTURE;
+    }
+
+    /**
+     * 丢弃缓存，下次获取时重新读取
+     */
+    static void invalidate() {
+        sMode = -1;
+    }
+
+    /**
+     * 读取系统资源
+     */
+    private static int read(@NonNull Resources resources) {
+        int resourceId = resources.getIdentifier(
+                "config_navBarInteractionMode", "integer", "android");
+        if (resourceId > 0) {
+            int mode = resources.getInteger(resourceId);
+            if (mode == TWO_BUTTON || mode == GESTURE) {
+                return mode;
+            }
+        }
+        return THREE_BUTTON;
+    }
+}
@@ -0,0 +1,213 @@
+package com.brave.system.bar.library;
+
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+import android.view.ViewTreeObserver;
+import android.view.Window;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 20:05
+ *     <b>desc</b>      ：<pre>
+ *         半透明系统栏的不透明快速路径，
+ *         系统栏占位时，系统栏下方是根布局的Padding区域，
+ *         若根布局是自身设置Padding的普通布局且背景是已知的纯色，
+ *         直接把半透明颜色混合成不透明颜色，
+ *         看起来完全一样，但每帧不再需要与内容混合，
+ *         每次布局完成后检查背景（不在每帧绘制前检查），背景变化后重新混合，
+ *         只改背景、没有触发布局时到下次布局才更新，其它情况使用原半透明颜色
+ *     </pre>
+ * </pre>
+ */
+final class OpaqueFastPath implements ViewTreeObserver.OnGlobalLayoutListener {
+    // 自身按fitsSystemWindows设置Padding的根布局（系统栏下方一定是根布局的背景），
+    // CoordinatorLayout、DrawerLayout等自行分发Insets的布局不在其中
+    private static final String[] PLAIN_ROOTS = {
+            "androidx.constraintlayout.widget.ConstraintLayout",
+            "androidx.appcompat.widget.LinearLayoutCompat"
+    };
+
+    // 窗口
+    private final WeakReference<Window> mWindow;
+    // 根布局（由窗口持有，这里只弱引用）
+    private final WeakReference<View> mRootView;
+    // 装饰布局（监听所在的ViewTreeObserver）
+    private final WeakReference<View> mDecorView;
+    // 半透明颜色
+    private final int mTranslucent;
+    // 上次设置的颜色
+    private int mResolved;
+
+    private OpaqueFastPath(@NonNull Window window, @NonNull View rootView, int translucent, int resolved) {
+        mWindow = new WeakReference<>(window);
+        mRootView = new WeakReference<>(rootView);
+        mDecorView = new WeakReference<>(window.getDecorView());
+        mTranslucent = translucent;
+        mResolved = resolved;
+    }
+
+    /**
+     * 获取系统栏实际要设置的颜色
+     *
+     * @param window   窗口
+     * @param rootView 根布局（系统栏占位）
+     * @param barColor 半透明颜色
+     * @return 下方是已知纯色时返回混合后的不透明颜色，否则返回原颜色
+     */
+    static @ColorInt
+    int resolve(@NonNull Window window, @Nullable View rootView, @ColorInt int barColor) {
+        if (barColor >>> 24 == 255 || barColor >>> 24 == 0) {
+            return barColor;
+        }
+        int underlay = getUnderlayColor(window, rootView);
+        if (underlay == 0) {
+            return barColor;
+        }
+        return LuminanceCache.composite(barColor, underlay);
+    }
+
+    /**
+     * 监听窗口的布局，布局完成后根布局与窗口背景有变化时重新获取颜色（替换窗口之前的监听）
+     *
+     * @param window      窗口
+     * @param rootView    根布局（系统栏占位）
+     * @param translucent 半透明颜色
+     * @param resolved    已设置的颜色
+     */
+    static void watch(@NonNull Window window, @NonNull View rootView, @ColorInt int translucent, @ColorInt int resolved) {
+        WindowRegistry.Entry entry = WindowRegistry.peek(window);
+        if (null == entry) {
+            return;
+        }
+        if (null != entry.opaque) {
+            entry.opaque.stop();
+            entry.opaque = null;
+        }
+        // 不是普通布局时背景怎么变化都不会使用快速路径
+        if (!isPlainRoot(rootView)) {
+            return;
+        }
+        entry.opaque = new OpaqueFastPath(window, rootView, translucent, resolved);
+        window.getDecorView().getViewTreeObserver().addOnGlobalLayoutListener(entry.opaque);
+    }
+
+    /**
+     * 停止监听
+     */
+    void stop() {
+        View decorView = mDecorView.get();
+        if (null == decorView) {
+            return;
+        }
+        ViewTreeObserver observer = decorView.getViewTreeObserver();
+        if (observer.isAlive()) {
+            observer.removeGlobalOnLayoutListener(this);
+        }
+    }
+
+    /**
+     * 占用的内存（字节）：监听及其持有的对象
+     */
+    int retainedBytes() {
+        return RetainedSize.of(this)
+                + RetainedSize.of(mWindow)
+                + RetainedSize.of(mRootView)
+                + RetainedSize.of(mDecorView);
+    }
+
+    /**
+     * 布局完成后比较背景（只读取颜色，没有分配），背景变化后重新设置系统栏颜色
+     */
+    @Override
+    public void onGlobalLayout() {
+        Window window = mWindow.get();
+        View rootView = mRootView.get();
+        WindowRegistry.Entry entry = null == window ? null : WindowRegistry.peek(window);
+        if (null == entry || entry.opaque != this || null == rootView) {
+            stop();
+            return;
+        }
+        BarState state = entry.state;
+        // 系统栏已设置为其它颜色，不再跟随背景
+        if (state.statusBarColor != mResolved
+                && !(state.has(BarState.NAV_BAR) && state.navBarColor == mResolved)) {
+            stop();
+            entry.opaque = null;
+            return;
+        }
+        int color = resolve(window, rootView, mTranslucent);
+        if (color == mResolved) {
+            return;
+        }
+        int statusBarColor = state.statusBarColor == mResolved ? color : state.statusBarColor;
+        int navBarColor = state.navBarColor == mResolved ? color : state.navBarColor;
+        mResolved = color;
+        state.set(state.flags, statusBarColor, navBarColor);
+        BarEngine.applyState(window, rootView, state);
+    }
+
+    /**
+     * 获取系统栏下方的不透明纯色（未知时返回0）：
+     * 只有根布局是自身设置Padding的普通布局且背景是纯色时，系统栏下方才是已知的颜色
+     */
+    private static @ColorInt
+    int getUnderlayColor(@NonNull Window window, @Nullable View rootView) {
+        if (null == rootView || !isPlainRoot(rootView)) {
+            return 0;
+        }
+        Drawable background = rootView.getBackground();
+        if (!(background instanceof ColorDrawable)) {
+            return 0;
+        }
+        int color = ((ColorDrawable) background).getColor();
+        if (color >>> 24 == 255) {
+            return color;
+        }
+        // 半透明背景与窗口背景混合
+        int decorColor = getOpaqueColor(window.getDecorView().getBackground());
+        if (decorColor != 0) {
+            return LuminanceCache.composite(color, decorColor);
+        }
+        return 0;
+    }
+
+    /**
+     * 根布局是否按fitsSystemWindows给自身设置Padding
+     * （只认框架布局与少量已知布局，子类可能自行处理Insets，不认）
+     */
+    private static boolean isPlainRoot(@NonNull View rootView) {
+        String name = rootView.getClass().getName();
+        if (name.startsWith("android.widget.")) {
+            return true;
+        }
+        for (String plain : PLAIN_ROOTS) {
+            if (plain.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 获取不透明纯色背景的颜色（不是不透明纯色时返回0）
+     */
+    private static @ColorInt
+    int getOpaqueColor(@Nullable Drawable drawable) {
+        if (drawable instanceof ColorDrawable) {
+            int color = ((ColorDrawable) drawable).getColor();
+            if (color >>> 24 == 255) {
+                return color;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,99 @@
+package com.brave.system.bar.library;
+
+import android.app.Activity;
+import android.view.Window;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 22:50
+ *     <b>desc</b>      ：<pre>
+ *         列表系统栏工具类，
+ *         状态栏颜色跟随状态栏下方的列表项（如带颜色的吸顶标题），
+ *         颜色由适配器提供，不需要采样像素，
+ *         需要应用自己依赖androidx.recyclerview
+ *     </pre>
+ * </pre>
+ */
+public final class RecyclerBarUtils {
+    private RecyclerBarUtils() {
+    }
+
+    /**
+     * 状态栏颜色提供者，由列表的适配器实现
+     */
+    public interface StatusBarColorProvider {
+        /**
+         * 获取状态栏底部位于该项时的状态栏颜色，
+         * 只在状态栏底部所在项的位置变化时调用
+         *
+         * @param position 适配器位置
+         * @return 状态栏颜色（包含透明度）
+         */
+        @ColorInt
+        int getStatusBarColor(int position);
+    }
+
+    /**
+     * 状态栏颜色跟随列表（一个窗口只跟随一个列表，再次调用时替换并重新查询），
+     * 列表的适配器需要实现{@link StatusBarColorProvider}，
+     * 颜色在下一帧应用，与已设置的颜色相同时不修改窗口，保留已设置的虚拟按键栏与根布局参数
+     *
+     * @param window       窗口
+     * @param recyclerView 列表
+     * @param autoIcon     根据颜色自动选择深色/浅色图标（为false时保留已设置的图标颜色）
+     */
+    public static final void trackStatusBarColor(@NonNull Window window,
+                                                 @NonNull RecyclerView recyclerView,
+                                                 boolean autoIcon) {
+        // 当前设备API小于19，不支持设置状态栏颜色
+        if (!BarEngine.isAndroid_4_4_Above()) {
+            return;
+        }
+        WindowRegistry.Entry entry = WindowRegistry.obtain(window);
+        if (null != entry.tracker) {
+            entry.tracker.stop();
+        }
+        entry.tracker = new StickyHeaderTracker(window, recyclerView, autoIcon);
+        entry.tracker.start();
+    }
+
+    /**
+     * 状态栏颜色跟随列表（根据颜色自动选择深色/浅色图标）
+     *
+     * @param activity     活动
+     * @param recyclerView 列表
+     */
+    public static final void trackStatusBarColor(@NonNull Activity activity,
+                                                 @NonNull RecyclerView recyclerView) {
+        trackStatusBarColor(activity.getWindow(), recyclerView, true);
+    }
+
+    /**
+     * 停止状态栏颜色跟随列表（保留当前颜色）
+     *
+     * @param window 窗口
+     */
+    public static final void stopTrackingStatusBarColor(@NonNull Window window) {
+        WindowRegistry.Entry entry = WindowRegistry.peek(window);
+        if (null == entry || null == entry.tracker) {
+            return;
+        }
+        entry.tracker.stop();
+        entry.tracker = null;
+    }
+
+    /**
+     * 停止状态栏颜色跟随列表（保留当前颜色）
+     *
+     * @param activity 活动
+     */
+    public static final void stopTrackingStatusBarColor(@NonNull Activity activity) {
+        stopTrackingStatusBarColor(activity.getWindow());
+    }
+}
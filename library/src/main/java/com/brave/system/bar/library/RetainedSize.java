@@ -0,0 +1,111 @@
+package com.brave.system.bar.library;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.ref.Reference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/20 10:10
+ *     <b>desc</b>      ：<pre>
+ *         对象浅层大小（调试用），
+ *         按ART的对象布局（对象头8字节、数组头12字节、引用4字节、按8字节对齐）计算，
+ *         本库类的字段通过反射统计，引用类型（WeakReference）按其固定的4个引用字段计算，
+ *         其他框架类只计算对象头，
+ *         只在获取缓存内存或检查泄漏时加载
+ *     </pre>
+ * </pre>
+ */
+final class RetainedSize {
+    // 对象头
+    private static final int OBJECT_HEADER = 8;
+    // 数组头（对象头与长度）
+    private static final int ARRAY_HEADER = 12;
+    // 引用
+    private static final int REFERENCE = 4;
+    // java.lang.ref.Reference的字段：referent、queue、queueNext、pendingNext
+    private static final int REFERENCE_FIELDS = 4 * REFERENCE;
+    // 本库的包名
+    private static final String PACKAGE = RetainedSize.class.getPackage().getName();
+    // 已计算的类大小
+    private static final HashMap<Class<?>, Integer> sSizes = new HashMap<>();
+
+    private RetainedSize() {
+    }
+
+    /**
+     * 对象的浅层大小（字节），为空时为0
+     */
+    static int of(@Nullable Object object) {
+        if (null == object) {
+            return 0;
+        }
+        Class<?> type = object.getClass();
+        if (type.isArray()) {
+            int length = Array.getLength(object);
+            return align(ARRAY_HEADER + length * sizeOf(type.getComponentType()));
+        }
+        Integer size = sSizes.get(type);
+        if (null == size) {
+            size = compute(type);
+            sSizes.put(type, size);
+        }
+        return size;
+    }
+
+    /**
+     * 计算类的实例大小
+     */
+    private static int compute(@NonNull Class<?> type) {
+        int bytes = OBJECT_HEADER;
+        Class<?> c = type;
+        // 本库的类（包括内部类与匿名类）统计声明的字段
+        while (null != c && isLibraryClass(c)) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    bytes += sizeOf(field.getType());
+                }
+            }
+            c = c.getSuperclass();
+        }
+        if (null != c && Reference.class.isAssignableFrom(c)) {
+            bytes += REFERENCE_FIELDS;
+        }
+        return align(bytes);
+    }
+
+    private static boolean isLibraryClass(@NonNull Class<?> type) {
+        Package p = type.getPackage();
+        return null != p && PACKAGE.equals(p.getName());
+    }
+
+    /**
+     * 字段或数组元素的大小
+     */
+    private static int sizeOf(@NonNull Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return REFERENCE;
+    }
+
+    private static int align(int bytes) {
+        return (bytes + 7) & ~7;
+    }
+}
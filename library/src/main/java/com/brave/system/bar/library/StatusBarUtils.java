@@ -147,33 +147,64 @@ public final class StatusBarUtils {
     }
 
     /**
-     * 设置状态栏半透明
+     * 设置状态栏颜色（默认状态栏占位，子View可以展示在Padding区域，根据状态栏实际颜色自动选择图标颜色）
+     *
+     * @param window   窗口
+     * @param rootView 根布局
+     * @param color    颜色
+     * @param alpha    透明度[0,255]，值越小越透明
      */
-    public static final void setTranslucent(@NonNull Window window,
-                                            @NonNull View rootView) {
-        BarUtils.setSystemBarColor(window,
+    public static final void setColorAuto(@NonNull Window window,
+                                          @NonNull View rootView,
+                                          @ColorInt int color,
+                                          @IntRange(from = 0, to = 255) int alpha) {
+        BarUtils.setSystemBarColorAuto(window,
                 rootView,
                 true,
                 false,
-                false,
                 true,
                 true,
-                Color.BLACK,
-                112);
+                color,
+                alpha);
     }
 
     /**
-     * 设置状态栏半透明
+     * 设置状态栏颜色（默认状态栏占位，子View可以展示在Padding区域，根据状态栏实际颜色自动选择图标颜色）
+     *
+     * @param activity 活动
+     * @param color    颜色
+     * @param alpha    透明度[0,255]，值越小越透明
      */
-    public static final void setTranslucent(@NonNull Activity activity) {
-        BarUtils.setSystemBarColor(activity,
+    public static final void setColorAuto(@NonNull Activity activity,
+                                          @ColorInt int color,
+                                          @IntRange(from = 0, to = 255) int alpha) {
+        BarUtils.setSystemBarColorAuto(activity,
                 true,
                 false,
-                false,
                 true,
                 true,
-                Color.BLACK,
-                112);
+                color,
+                alpha);
+    }
+
+    /**
+     * 设置状态栏半透明
+     */
+    public static final void setTranslucent(@NonNull Window window,
+                                            @NonNull View rootView) {
+        BarUtils.setTranslucent(window,
+                rootView,
+                true,
+                false);
+    }
+
+    /**
+     * 设置状态栏半透明
+     */
+    public static final void setTranslucent(@NonNull Activity activity) {
+        BarUtils.setTranslucent(activity,
+                true,
+                false);
     }
 
     /**
@@ -0,0 +1,205 @@
+package com.brave.system.bar.library;
+
+import android.view.View;
+import android.view.Window;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 22:50
+ *     <b>desc</b>      ：<pre>
+ *         状态栏颜色跟随列表，
+ *         滚动与布局变化时找到状态栏底部所在的列表项，
+ *         只在该项的位置变化或适配器数据变化时向适配器查询颜色，
+ *         列表顶部在状态栏下方（没有延伸到状态栏下）时不跟随，
+ *         通过合并到下一帧、状态没有变化时不应用的方式设置状态栏颜色，
+ *         本类不继承RecyclerView的类型，没有依赖RecyclerView的应用加载窗口条目时不会校验失败
+ *     </pre>
+ * </pre>
+ */
+final class StickyHeaderTracker implements View.OnLayoutChangeListener {
+    // 窗口
+    private final WeakReference<Window> mWindow;
+    // 列表（窗口条目持有跟随器，这里只弱引用，避免窗口无法回收）
+    private final WeakReference<RecyclerView> mRecyclerView;
+    // 根据颜色自动选择图标
+    private final boolean mAutoIcon;
+    // 复用的位置数组
+    private final int[] mLocation = new int[2];
+    // 上次状态栏底部所在项的位置
+    private int mLastPosition = RecyclerView.NO_POSITION;
+    // 已监听数据变化的适配器（由列表持有，这里只弱引用）
+    private WeakReference<RecyclerView.Adapter> mAdapter;
+    // 是否已安排数据变化后的更新
+    private boolean mUpdateScheduled;
+
+    StickyHeaderTracker(@NonNull Window window, @NonNull RecyclerView recyclerView, boolean autoIcon) {
+        mWindow = new WeakReference<>(window);
+        mRecyclerView = new WeakReference<>(recyclerView);
+        mAutoIcon = autoIcon;
+    }
+
+    /**
+     * 开始监听滚动与布局变化
+     */
+    void start() {
+        RecyclerView recyclerView = mRecyclerView.get();
+        if (null == recyclerView) {
+            return;
+        }
+        recyclerView.addOnScrollListener(mScrollListener);
+        recyclerView.addOnLayoutChangeListener(this);
+        update();
+    }
+
+    /**
+     * 停止监听
+     */
+    void stop() {
+        setAdapter(null);
+        RecyclerView recyclerView = mRecyclerView.get();
+        if (null == recyclerView) {
+            return;
+        }
+        recyclerView.removeOnScrollListener(mScrollListener);
+        recyclerView.removeOnLayoutChangeListener(this);
+        recyclerView.removeCallbacks(mUpdate);
+        mUpdateScheduled = false;
+    }
+
+    /**
+     * 监听适配器的数据变化（替换之前的适配器）
+     */
+    private void setAdapter(RecyclerView.Adapter adapter) {
+        RecyclerView.Adapter old = null == mAdapter ? null : mAdapter.get();
+        if (old == adapter) {
+            return;
+        }
+        if (null != old) {
+            old.unregisterAdapterDataObserver(mDataObserver);
+        }
+        mAdapter = null == adapter ? null : new WeakReference<>(adapter);
+        if (null != adapter) {
+            adapter.registerAdapterDataObserver(mDataObserver);
+        }
+        mLastPosition = RecyclerView.NO_POSITION;
+    }
+
+    @Override
+    public void onLayoutChange(View v,
+                               int left, int top, int right, int bottom,
+                               int oldLeft, int oldTop, int oldRight, int oldBottom) {
+        update();
+    }
+
+    /**
+     * 占用的内存（字节）：跟随器及其持有的对象
+     */
+    int retainedBytes() {
+        return RetainedSize.of(this)
+                + RetainedSize.of(mWindow)
+                + RetainedSize.of(mRecyclerView)
+                + RetainedSize.of(mLocation)
+                + RetainedSize.of(mScrollListener)
+                + RetainedSize.of(mAdapter)
+                + RetainedSize.of(mDataObserver)
+                + RetainedSize.of(mUpdate);
+    }
+
+    // 滚动监听
+    private final RecyclerView.OnScrollListener mScrollListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+            update();
+        }
+    };
+
+    // 数据变化（包括状态栏下方的项颜色变化）后重新查询颜色，等列表按新数据布局后再更新
+    private final RecyclerView.AdapterDataObserver mDataObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            invalidate();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            invalidate();
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            invalidate();
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            invalidate();
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            invalidate();
+        }
+    };
+
+    // 数据变化后的更新
+    private final Runnable mUpdate = new Runnable() {
+        @Override
+        public void run() {
+            mUpdateScheduled = false;
+            update();
+        }
+    };
+
+    /**
+     * 丢弃上次的位置，合并同一轮消息中的多次数据变化后更新
+     */
+    private void invalidate() {
+        mLastPosition = RecyclerView.NO_POSITION;
+        RecyclerView recyclerView = mRecyclerView.get();
+        if (null == recyclerView || mUpdateScheduled) {
+            return;
+        }
+        mUpdateScheduled = true;
+        recyclerView.post(mUpdate);
+    }
+
+    /**
+     * 状态栏底部所在项的位置变化时，设置该项的颜色
+     */
+    private void update() {
+        Window window = mWindow.get();
+        RecyclerView recyclerView = mRecyclerView.get();
+        if (null == window || null == recyclerView) {
+            return;
+        }
+        RecyclerView.Adapter adapter = recyclerView.getAdapter();
+        setAdapter(adapter);
+        if (!(adapter instanceof RecyclerBarUtils.StatusBarColorProvider)) {
+            return;
+        }
+        // 状态栏底部在列表中的位置，列表在状态栏下方时状态栏下不是列表，不跟随
+        recyclerView.getLocationInWindow(mLocation);
+        int y = BarMetrics.getTopInset(window) - 1 - mLocation[1];
+        if (y < 0) {
+            return;
+        }
+        View child = recyclerView.findChildViewUnder(recyclerView.getWidth() / 2f, y);
+        if (null == child) {
+            return;
+        }
+        int position = recyclerView.getChildAdapterPosition(child);
+        if (position == RecyclerView.NO_POSITION || position == mLastPosition) {
+            return;
+        }
+        mLastPosition = position;
+        int color = ((RecyclerBarUtils.StatusBarColorProvider) adapter).getStatusBarColor(position);
+        GlobalTheme.requestStatusBarColor(window, color, mAutoIcon);
+    }
+}
@@ -56,7 +56,13 @@ final class Utils {
      */
     static boolean hasNavigationBar(@NonNull Window window) {
         WindowManager windowManager = window.getWindowManager();
-        Display d = windowManager.getDefaultDisplay();
+        return hasNavigationBar(windowManager.getDefaultDisplay());
+    }
+
+    /**
+     * 显示屏是否拥有底部虚拟按键栏
+     */
+    static boolean hasNavigationBar(@NonNull Display d) {
         // 获取整个屏幕的高度
         DisplayMetrics realDisplayMetrics = new DisplayMetrics();
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
@@ -0,0 +1,391 @@
+package com.brave.system.bar.library;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.graphics.drawable.Drawable;
+import android.os.Bundle;
+import android.view.View;
+import android.view.Window;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 13:20
+ *     <b>desc</b>      ：<pre>
+ *         窗口注册表，
+ *         所有按窗口缓存的数据（系统栏状态、系统栏View、背景色、采样器、尺寸等）都保存在这里，
+ *         以弱引用持有窗口，窗口被回收后通过{@link ReferenceQueue}清理，
+ *         Activity销毁时主动移除，只在主线程使用
+ *     </pre>
+ * </pre>
+ */
+final class WindowRegistry {
+    // 已注册的窗口
+    private static final ArrayList<Entry> sEntries = new ArrayList<>();
+    // 被回收的窗口
+    private static final ReferenceQueue<Window> sQueue = new ReferenceQueue<>();
+    // 最近一次查找到的条目
+    private static Entry sLastHit;
+    // 已注册生命周期回调的Application
+    private static Application sApplication;
+    // 生命周期回调
+    private static final Callbacks sCallbacks = new Callbacks();
+    // 是否开启泄漏检查（由{@link LeakCheck}设置）
+    static boolean sCheckLeaks;
+
+    private WindowRegistry() {
+    }
+
+    /**
+     * 窗口条目
+     */
+    static final class Entry extends WeakReference<Window> {
+        // 所属Activity（可能为空）
+        final WeakReference<Activity> activity;
+        // 状态栏View（Android 4.4，由装饰布局持有，这里只弱引用）
+        WeakReference<View> statusBarView;
+        // 虚拟按键栏View（Android 4.4，由装饰布局持有，这里只弱引用）
+        WeakReference<View> navBarView;
+        // 计算背景色时的窗口背景（由装饰布局持有，这里只弱引用）
+        WeakReference<Drawable> background;
+        // 窗口背景色（不透明）
+        int backgroundColor;
+        // 已设置的系统栏状态
+        final BarState state = new BarState();
+        // 等待窗口可见时应用的系统栏状态
+        final BarState pending = new BarState();
+        // 设置时请求、但窗口不支持而被整理掉的标记位（尺寸校正后可能重新支持）
+        int strippedFlags;
+        // 日间系统栏状态
+        final BarState day = new BarState();
+        // 夜间系统栏状态
+        final BarState night = new BarState();
+        // 应用日间/夜间状态时窗口的夜间模式（Configuration.UI_MODE_NIGHT_MASK部分）
+        int nightMode;
+        // 已应用的状态是否不强制虚拟按键栏对比度（本库设置的部分）
+        boolean contrastOff;
+        // 根布局（由窗口持有，这里只弱引用）
+        WeakReference<View> rootView;
+        // 状态栏图标自适应采样器
+        AdaptiveIconSampler sampler;
+        // 状态栏颜色跟随列表
+        StickyHeaderTracker tracker;
+        // 系统栏状态守护（由窗口作为回调持有，这里只弱引用：
+        // 守护强引用原回调，对话框的原回调是对话框本身，它又强引用窗口）
+        WeakReference<BarWatchdog> watchdog;
+        // 状态栏背景（渐变、图片）
+        BarBackground barBackground;
+        // 半透明系统栏的不透明快速路径
+        OpaqueFastPath opaque;
+        // 系统栏状态监听
+        BarObservers observers;
+        // 系统栏尺寸
+        BarMetrics metrics;
+        // 计算尺寸时的屏幕方向
+        int orientation;
+        // 计算尺寸时的窗口宽度（dp）
+        int screenWidthDp;
+        // 计算尺寸时的窗口高度（dp）
+        int screenHeightDp;
+        // 计算尺寸时的屏幕密度
+        int densityDpi;
+        // 计算尺寸时的旋转方向（只在有刘海时记录）
+        int rotation;
+
+        Entry(@NonNull Window window, @Nullable Activity activity) {
+            super(window, sQueue);
+            this.activity = new WeakReference<>(activity);
+        }
+
+        /**
+         * 占用的内存（字节）：条目及其独占的对象，
+         * 不包含窗口本身持有的View与背景、多个窗口共用的尺寸（调试用，首次调用时通过反射计算类大小）
+         */
+        int retainedBytes() {
+            int bytes = RetainedSize.of(this)
+                    + RetainedSize.of(activity)
+                    + RetainedSize.of(statusBarView)
+                    + RetainedSize.of(navBarView)
+                    + RetainedSize.of(background)
+                    + RetainedSize.of(rootView)
+                    + RetainedSize.of(state)
+                    + RetainedSize.of(pending)
+                    + RetainedSize.of(day)
+                    + RetainedSize.of(night);
+            if (null != sampler) {
+                bytes += sampler.retainedBytes();
+            }
+            if (null != tracker) {
+                bytes += tracker.retainedBytes();
+            }
+            BarWatchdog barWatchdog = null == watchdog ? null : watchdog.get();
+            if (null != barWatchdog) {
+                bytes += RetainedSize.of(watchdog) + barWatchdog.retainedBytes();
+            }
+            if (null != barBackground) {
+                bytes += barBackground.retainedBytes();
+            }
+            if (null != opaque) {
+                bytes += opaque.retainedBytes();
+            }
+            if (null != observers) {
+                bytes += observers.retainedBytes();
+            }
+            return bytes;
+        }
+
+        /**
+         * 清除日间/夜间状态（显式设置了其它状态）
+         */
+        void clearPalette() {
+            day.clear();
+            night.clear();
+            nightMode = 0;
+        }
+
+        /**
+         * 释放条目持有的资源
+         */
+        void release() {
+            if (null != sampler) {
+                sampler.stop();
+                sampler = null;
+            }
+            if (null != tracker) {
+                tracker.stop();
+                tracker = null;
+            }
+            BarWatchdog barWatchdog = null == watchdog ? null : watchdog.get();
+            if (null != barWatchdog) {
+                barWatchdog.mDisabled = true;
+            }
+            watchdog = null;
+            if (null != opaque) {
+                opaque.stop();
+                opaque = null;
+            }
+            barBackground = null;
+            observers = null;
+            statusBarView = null;
+            navBarView = null;
+            background = null;
+            metrics = null;
+            rootView = null;
+            state.clear();
+            pending.clear();
+            day.clear();
+            night.clear();
+        }
+    }
+
+    /**
+     * 获取窗口条目，没有时返回空
+     */
+    @Nullable
+    static Entry peek(@NonNull Window window) {
+        expunge();
+        Entry hit = sLastHit;
+        if (null != hit && hit.get() == window) {
+            return hit;
+        }
+        for (int i = 0, size = sEntries.size(); i < size; i++) {
+            Entry entry = sEntries.get(i);
+            if (entry.get() == window) {
+                sLastHit = entry;
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取窗口条目，没有时创建
+     */
+    @NonNull
+    static Entry obtain(@NonNull Window window) {
+        Entry entry = peek(window);
+        if (null == entry) {
+            Activity activity = getActivity(window.getContext());
+            if (null != activity) {
+                register(activity.getApplication());
+            }
+            entry = new Entry(window, activity);
+            sEntries.add(entry);
+            sLastHit = entry;
+        }
+        return entry;
+    }
+
+    /**
+     * 移除窗口条目
+     */
+    static void remove(@NonNull Window window) {
+        Entry entry = peek(window);
+        if (null != entry) {
+            remove(entry);
+        }
+    }
+
+    /**
+     * 所有已注册的窗口条目（只读，请勿修改）
+     */
+    @NonNull
+    static ArrayList<Entry> entries() {
+        expunge();
+        return sEntries;
+    }
+
+    /**
+     * 已注册的窗口数量
+     */
+    static int size() {
+        expunge();
+        return sEntries.size();
+    }
+
+    /**
+     * 占用的内存（字节）
+     */
+    static long retainedBytes() {
+        expunge();
+        long bytes = 0;
+        for (int i = 0, size = sEntries.size(); i < size; i++) {
+            bytes += sEntries.get(i).retainedBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * 从Context中获取Activity
+     */
+    @Nullable
+    static Activity getActivity(@Nullable Context context) {
+        while (context instanceof ContextWrapper) {
+            if (context instanceof Activity) {
+                return (Activity) context;
+            }
+            context = ((ContextWrapper) context).getBaseContext();
+        }
+        return null;
+    }
+
+    /**
+     * 清理已被回收的窗口
+     */
+    private static void expunge() {
+        Reference<? extends Window> reference;
+        while (null != (reference = sQueue.poll())) {
+            remove((Entry) reference);
+        }
+    }
+
+    /**
+     * 移除条目
+     */
+    private static void remove(@NonNull Entry entry) {
+        sEntries.remove(entry);
+        if (sLastHit == entry) {
+            sLastHit = null;
+        }
+        entry.release();
+    }
+
+    /**
+     * 注册Activity生命周期回调（同一个Application只注册一次，换成其他Application时转移到新的Application）
+     */
+    static void register(@NonNull Application application) {
+        if (sApplication == application) {
+            return;
+        }
+        unregister();
+        sApplication = application;
+        application.registerActivityLifecycleCallbacks(sCallbacks);
+    }
+
+    /**
+     * 取消注册Activity生命周期回调
+     */
+    static void unregister() {
+        if (null != sApplication) {
+            sApplication.unregisterActivityLifecycleCallbacks(sCallbacks);
+            sApplication = null;
+        }
+    }
+
+    /**
+     * 清空注册表并取消注册生命周期回调（测试用）
+     */
+    @VisibleForTesting
+    static void reset() {
+        for (int i = sEntries.size() - 1; i >= 0; i--) {
+            remove(sEntries.get(i));
+        }
+        expunge();
+        unregister();
+    }
+
+    /**
+     * Activity生命周期回调
+     */
+    private static final class Callbacks implements Application.ActivityLifecycleCallbacks {
+        @Override
+        public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+            // 读取重建前的系统栏状态（onStart时应用，此时不访问窗口）
+            if (null != savedInstanceState) {
+                BarStateSaver.restore(activity, savedInstanceState);
+            }
+        }
+
+        @Override
+        public void onActivityStarted(Activity activity) {
+            // 恢复重建前的系统栏状态（已setContentView，还没有绘制第一帧）
+            BarStateSaver.onStarted(activity);
+        }
+
+        @Override
+        public void onActivityResumed(Activity activity) {
+            // 应用不可见期间延迟的主题切换
+            GlobalTheme.onResumed(activity);
+        }
+
+        @Override
+        public void onActivityPaused(Activity activity) {
+        }
+
+        @Override
+        public void onActivityStopped(Activity activity) {
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+            BarStateSaver.save(activity, outState);
+        }
+
+        @Override
+        public void onActivityDestroyed(Activity activity) {
+            // 移除Activity及其子窗口（对话框等）
+            for (int i = sEntries.size() - 1; i >= 0; i--) {
+                Entry entry = sEntries.get(i);
+                if (entry.activity.get() == activity) {
+                    // 移除前记录窗口，延迟后检查窗口是否已被回收
+                    if (sCheckLeaks) {
+                        LeakCheck.watch(entry, activity);
+                    }
+                    remove(entry);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package com.brave.system.bar.library;
+
+import android.app.Activity;
+import android.app.Dialog;
+import android.content.Context;
+import android.graphics.Color;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.view.ViewOverlay;
+import android.view.Window;
+import android.widget.FrameLayout;
+
+import androidx.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.annotation.RealObject;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.shadows.ShadowPhoneWindow;
+import org.robolectric.util.ReflectionHelpers.ClassParameter;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import static org.robolectric.shadow.api.Shadow.directlyOn;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 20:00
+ *     <b>desc</b>      ：<pre>
+ *         平台调用预算测试，
+ *         记录每个公开方法对Window/View发起的修改（标记、可见性、颜色、对比度、浮层、根布局参数）与根布局的requestLayout，
+ *         窗口与浮层的调用由Shadow在平台层统计（包括库中不经过BarEngine的调用），
+ *         View的调用由BarEngine记录（View的Shadow会与ViewGroup等已有Shadow冲突），
+ *         检查每种场景的调用次数，防止重复修改的性能回退
+ *     </pre>
+ * </pre>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.P,
+        shadows = {PlatformCallBudgetTest.CountingPhoneWindow.class,
+                PlatformCallBudgetTest.CountingViewOverlay.class})
+public class PlatformCallBudgetTest {
+    // 记录的平台调用（Shadow与BarEngine共同写入）
+    private static final ArrayList<String> sCalls = new ArrayList<>();
+    // 活动
+    private Activity mActivity;
+    // 根布局
+    private CountingLayout mRootView;
+
+    @Before
+    public void setUp() {
+        mActivity = Robolectric.buildActivity(Activity.class).setup().get();
+        mRootView = new CountingLayout(mActivity);
+        mActivity.setContentView(mRootView);
+        BarEngine.sRecorder = new BarEngine.CallRecorder() {
+            @Override
+            public void onCall(@NonNull String call) {
+                // 窗口的调用由Shadow统计
+                if (!call.startsWith("Window.")) {
+                    sCalls.add(call);
+                }
+            }
+        };
+        reset();
+    }
+
+    @After
+    public void tearDown() {
+        BarEngine.sRecorder = null;
+        sCalls.clear();
+    }
+
+    @Test
+    public void setSystemBarColor_firstCall_withinBudget() {
+        BarUtils.setSystemBarColor(mActivity, Color.BLUE);
+        assertAtMost("Window.setFlags", 1);
+        assertAtMost("View.setSystemUiVisibility", 1);
+        assertAtMost("Window.setStatusBarColor", 1);
+        assertAtMost("Window.setNavigationBarColor", hasNavigationBar() ? 1 : 0);
+        assertAtMost("View.setFitsSystemWindows", 1);
+        assertAtMost("ViewGroup.setClipToPadding", 0);
+        assertTrue(mRootView.mRequestLayoutCount <= 1);
+    }
+
+    @Test
+    public void setSystemBarColor_repeated_noPlatformCalls() {
+        BarUtils.setSystemBarColor(mActivity, Color.BLUE);
+        reset();
+        BarUtils.setSystemBarColor(mActivity, Color.BLUE);
+        assertNoCalls();
+    }
+
+    @Test
+    public void setSystemBarColor_colorChange_onlyColorCalls() {
+        BarUtils.setSystemBarColor(mActivity, Color.BLUE);
+        reset();
+        BarUtils.setSystemBarColor(mActivity, Color.RED);
+        assertEquals(1, count("Window.setStatusBarColor"));
+        assertEquals(hasNavigationBar() ? 1 : 0, count("Window.setNavigationBarColor"));
+        assertEquals(sCalls.size(), count("Window.setStatusBarColor") + count("Window.setNavigationBarColor"));
+        assertEquals(0, mRootView.mRequestLayoutCount);
+    }
+
+    @Test
+    public void setSystemBarColor_darkIcon_onlyVisibilityCall() {
+        BarUtils.setSystemBarColor(mActivity, false, Color.WHITE);
+        reset();
+        BarUtils.setSystemBarColor(mActivity, true, Color.WHITE);
+        assertEquals(1, count("View.setSystemUiVisibility"));
+        assertEquals(1, sCalls.size());
+        reset();
+        BarUtils.setSystemBarColor(mActivity, true, Color.WHITE);
+        assertNoCalls();
+    }
+
+    @Test
+    public void setSystemBarColorAuto_repeated_noPlatformCalls() {
+        BarUtils.setSystemBarColorAuto(mActivity, Color.YELLOW, 255);
+        reset();
+        BarUtils.setSystemBarColorAuto(mActivity, Color.YELLOW, 255);
+        assertNoCalls();
+    }
+
+    @Test
+    public void statusBarSetColor_repeated_noPlatformCalls() {
+        StatusBarUtils.setColor(mActivity, Color.BLUE);
+        assertEquals(0, count("Window.setNavigationBarColor"));
+        reset();
+        StatusBarUtils.setColor(mActivity, Color.BLUE);
+        assertNoCalls();
+    }
+
+    @Test
+    public void navBarSetColor_repeated_noPlatformCalls() {
+        NavBarUtils.setColor(mActivity, Color.BLUE);
+        assertEquals(0, count("Window.setStatusBarColor"));
+        reset();
+        NavBarUtils.setColor(mActivity, Color.BLUE);
+        assertNoCalls();
+    }
+
+    @Test
+    public void translucentAndTransparent_repeated_noPlatformCalls() {
+        BarUtils.setTranslucent(mActivity);
+        reset();
+        BarUtils.setTranslucent(mActivity);
+        assertNoCalls();
+        BarUtils.setTransparent(mActivity);
+        reset();
+        BarUtils.setTransparent(mActivity);
+        assertNoCalls();
+        StatusBarUtils.setTranslucent(mActivity);
+        reset();
+        StatusBarUtils.setTranslucent(mActivity);
+        assertNoCalls();
+        NavBarUtils.setTransparent(mActivity);
+        reset();
+        NavBarUtils.setTransparent(mActivity);
+        assertNoCalls();
+    }
+
+    @Test
+    public void translucentToTransparent_noRootViewCalls() {
+        BarUtils.setTranslucent(mActivity);
+        reset();
+        BarUtils.setTransparent(mActivity);
+        assertEquals(0, count("View.setFitsSystemWindows"));
+        assertEquals(0, count("ViewGroup.setClipToPadding"));
+        assertEquals(0, mRootView.mRequestLayoutCount);
+    }
+
+    @Test
+    public void setSystemBarColor_dialog_withinBudget() {
+        Dialog dialog = new Dialog(mActivity);
+        CountingLayout rootView = new CountingLayout(dialog.getContext());
+        dialog.setContentView(rootView);
+        dialog.show();
+        reset();
+        BarUtils.setSystemBarColor(dialog, false, Color.BLUE);
+        assertAtMost("Window.setFlags", 1);
+        assertAtMost("View.setSystemUiVisibility", 1);
+        assertAtMost("Window.setStatusBarColor", 1);
+        assertAtMost("Window.setNavigationBarColor", 1);
+        assertAtMost("View.setFitsSystemWindows", 1);
+        assertTrue(rootView.mRequestLayoutCount <= 1);
+        reset();
+        rootView.mRequestLayoutCount = 0;
+        BarUtils.setSystemBarColor(dialog, false, Color.BLUE);
+        assertNoCalls();
+        assertEquals(0, rootView.mRequestLayoutCount);
+        dialog.dismiss();
+    }
+
+    @Test
+    public void setStatusBarGradient_withinBudget() {
+        BarUtils.setStatusBarGradient(mActivity, false, Color.RED, Color.BLUE);
+        assertAtMost("Window.setFlags", 1);
+        assertAtMost("View.setSystemUiVisibility", 1);
+        assertAtMost("Window.setStatusBarColor", 1);
+        assertAtMost("ViewOverlay.add", 1);
+        reset();
+        BarUtils.setStatusBarGradient(mActivity, false, Color.RED, Color.BLUE);
+        assertNoCalls();
+        // 只修改渐变颜色，复用浮层与窗口状态
+        BarUtils.setStatusBarGradient(mActivity, false, Color.GREEN, Color.BLUE);
+        assertEquals(0, count("ViewOverlay.add"));
+        assertEquals(0, count("Window.setFlags"));
+        assertEquals(0, mRootView.mRequestLayoutCount);
+    }
+
+    @Test
+    public void setDayNightSystemBarColor_withinBudget() {
+        BarUtils.setDayNightSystemBarColor(mActivity, true, Color.WHITE, false, Color.BLACK);
+        assertAtMost("Window.setFlags", 1);
+        assertAtMost("View.setSystemUiVisibility", 1);
+        assertAtMost("Window.setStatusBarColor", 1);
+        assertAtMost("Window.setNavigationBarColor", hasNavigationBar() ? 1 : 0);
+        reset();
+        BarUtils.setDayNightSystemBarColor(mActivity, true, Color.WHITE, false, Color.BLACK);
+        assertNoCalls();
+        // 夜间模式没有变化
+        BarUtils.onConfigurationChanged(mActivity);
+        assertNoCalls();
+    }
+
+    @Test
+    public void requestSystemBarColor_sameFrame_onlyLastApplied() {
+        BarUtils.setSystemBarColor(mActivity, Color.BLUE);
+        reset();
+        Window window = mActivity.getWindow();
+        assertTrue(BarUtils.requestSystemBarColor(window, false, Color.RED));
+        assertTrue(BarUtils.requestSystemBarColor(window, false, Color.GREEN));
+        assertNoCalls();
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertEquals(1, count("Window.setStatusBarColor"));
+        assertEquals(hasNavigationBar() ? 1 : 0, count("Window.setNavigationBarColor"));
+        assertEquals(0, count("Window.setFlags"));
+        assertEquals(0, mRootView.mRequestLayoutCount);
+        reset();
+        assertFalse(BarUtils.requestSystemBarColor(window, false, Color.GREEN));
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertNoCalls();
+    }
+
+    @Test
+    public void applyPreset_sameAsSystemBarColor_noPlatformCalls() {
+        BarUtils.setSystemBarColor(mActivity, Color.BLUE);
+        BarState state = WindowRegistry.peek(mActivity.getWindow()).state;
+        reset();
+        BarUtils.applyPreset(mActivity, state.flags, state.statusBarColor);
+        assertNoCalls();
+    }
+
+    @Test
+    @Config(sdk = Build.VERSION_CODES.Q)
+    public void contrast_gestureThenButtons_restoredOnce() {
+        assumeTrue(hasNavigationBar());
+        Window window = mActivity.getWindow();
+        // 全面屏手势导航的半透明系统栏
+        BarEngine.apply(window,
+                mRootView,
+                BarState.NAV_BAR | BarState.FIT_SYSTEM_WINDOWS | BarState.NAV_CONTRAST_OFF,
+                Color.TRANSPARENT,
+                Color.TRANSPARENT);
+        assertEquals(1, count("Window.setNavigationBarContrastEnforced"));
+        assertFalse(window.isNavigationBarContrastEnforced());
+        reset();
+        // 非手势导航的设置恢复强制对比度
+        BarUtils.setSystemBarColor(mActivity, Color.BLUE);
+        assertEquals(1, count("Window.setNavigationBarContrastEnforced"));
+        assertTrue(window.isNavigationBarContrastEnforced());
+        reset();
+        BarUtils.setSystemBarColor(mActivity, Color.BLUE);
+        assertNoCalls();
+    }
+
+    @Test
+    @Config(sdk = Build.VERSION_CODES.Q)
+    public void contrast_disabledByApp_notOverridden() {
+        Window window = mActivity.getWindow();
+        // 应用（主题的enforceNavigationBarContrast）自己关闭了强制对比度
+        window.setNavigationBarContrastEnforced(false);
+        reset();
+        BarUtils.setSystemBarColor(mActivity, Color.BLUE);
+        BarUtils.setSystemBarColor(mActivity, Color.RED);
+        assertEquals(0, count("Window.setNavigationBarContrastEnforced"));
+        assertFalse(window.isNavigationBarContrastEnforced());
+    }
+
+    /**
+     * 清空记录
+     */
+    private void reset() {
+        sCalls.clear();
+        mRootView.mRequestLayoutCount = 0;
+    }
+
+    /**
+     * 窗口是否有虚拟按键栏
+     */
+    private boolean hasNavigationBar() {
+        return BarUtils.hasNavigationBar(mActivity.getWindow());
+    }
+
+    /**
+     * 调用次数
+     */
+    private int count(@NonNull String call) {
+        int count = 0;
+        for (int i = 0, size = sCalls.size(); i < size; i++) {
+            if (call.equals(sCalls.get(i))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void assertAtMost(@NonNull String call, int budget) {
+        int count = count(call);
+        assertTrue(call + " called " + count + " times, budget " + budget + ", calls " + sCalls,
+                count <= budget);
+    }
+
+    private void assertNoCalls() {
+        assertEquals("unexpected platform calls " + sCalls, 0, sCalls.size());
+        assertEquals("unexpected requestLayout", 0, mRootView.mRequestLayoutCount);
+    }
+
+    /**
+     * 在平台层统计窗口调用的Shadow（保留Robolectric默认的PhoneWindow行为）
+     */
+    @Implements(className = "com.android.internal.policy.PhoneWindow", isInAndroidSdk = false)
+    public static class CountingPhoneWindow extends ShadowPhoneWindow {
+        private static final String PHONE_WINDOW = "com.android.internal.policy.PhoneWindow";
+
+        @RealObject
+        private Window mRealWindow;
+
+        @Override
+        @Implementation
+        protected void setFlags(int flags, int mask) {
+            sCalls.add("Window.setFlags");
+            super.setFlags(flags, mask);
+        }
+
+        @Implementation
+        protected void setStatusBarColor(int color) {
+            sCalls.add("Window.setStatusBarColor");
+            directlyOn(mRealWindow, PHONE_WINDOW, "setStatusBarColor", ClassParameter.from(int.class, color));
+        }
+
+        @Implementation
+        protected void setNavigationBarColor(int color) {
+            sCalls.add("Window.setNavigationBarColor");
+            directlyOn(mRealWindow, PHONE_WINDOW, "setNavigationBarColor", ClassParameter.from(int.class, color));
+        }
+
+        @Implementation(minSdk = Build.VERSION_CODES.Q)
+        protected void setNavigationBarContrastEnforced(boolean enforced) {
+            sCalls.add("Window.setNavigationBarContrastEnforced");
+            directlyOn(mRealWindow, PHONE_WINDOW, "setNavigationBarContrastEnforced", ClassParameter.from(boolean.class, enforced));
+        }
+    }
+
+    /**
+     * 在平台层统计浮层添加的Shadow
+     */
+    @Implements(ViewOverlay.class)
+    public static class CountingViewOverlay {
+        @RealObject
+        private ViewOverlay mRealOverlay;
+
+        @Implementation
+        protected void add(Drawable drawable) {
+            sCalls.add("ViewOverlay.add");
+            directlyOn(mRealOverlay, ViewOverlay.class, "add", ClassParameter.from(Drawable.class, drawable));
+        }
+    }
+
+    /**
+     * 记录requestLayout次数的根布局
+     */
+    private static final class CountingLayout extends FrameLayout {
+        int mRequestLayoutCount;
+
+        CountingLayout(@NonNull Context context) {
+            super(context);
+        }
+
+        @Override
+        public void requestLayout() {
+            mRequestLayoutCount++;
+            super.requestLayout();
+        }
+    }
+}
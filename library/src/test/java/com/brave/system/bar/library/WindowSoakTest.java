@@ -0,0 +1,410 @@
+package com.brave.system.bar.library;
+
+import android.app.Activity;
+import android.app.Dialog;
+import android.content.Context;
+import android.graphics.Color;
+import android.graphics.drawable.ColorDrawable;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.Window;
+import android.widget.FrameLayout;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 23:10
+ *     <b>desc</b>      ：<pre>
+ *         窗口内存浸泡测试，
+ *         随机创建、销毁数千个Activity与对话框，并随机调用公开方法，
+ *         检查注册的窗口数量不超过存活的Activity数量（对话框显示后立即关闭），
+ *         且关闭的对话框窗口GC后被回收、不再留在注册表中，
+ *         全部销毁后注册表为空、不再占用内存，且GC后堆内存没有持续增长，
+ *         随机种子固定，可以通过-Dsoak.seed=N指定（失败信息中带有种子，便于复现）
+ *     </pre>
+ * </pre>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.P)
+public class WindowSoakTest {
+    // 随机操作次数
+    private static final int ITERATIONS = 3000;
+    // 同时存活的Activity上限
+    private static final int MAX_LIVE_ACTIVITIES = 8;
+    // 每隔多少次操作检查一次
+    private static final int CHECK_INTERVAL = 100;
+    // 默认随机种子
+    private static final long DEFAULT_SEED = 20261019L;
+    // 预热后与结束时堆内存允许的最大增长（至少，基线较大时按基线的比例放宽）
+    private static final long MAX_HEAP_GROWTH = 8L * 1024 * 1024;
+    // GC后堆内存允许的最大增长比例（相对基线）
+    private static final int MAX_HEAP_GROWTH_RATIO = 4;
+    // 测量堆内存时最多的GC次数
+    private static final int MAX_GC_ROUNDS = 10;
+
+    // 存活的Activity
+    private final ArrayList<Host> mHosts = new ArrayList<>();
+    // 上次检查之后关闭的对话框窗口
+    private final ArrayList<WeakReference<Window>> mDismissed = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        // 不读写磁盘缓存，不依赖上一个测试留下的注册表与生命周期回调
+        MetricsStore.sDisabled = true;
+        MetricsStore.reset();
+        WindowRegistry.reset();
+    }
+
+    @After
+    public void tearDown() {
+        destroyAll();
+        WindowRegistry.reset();
+        MetricsStore.reset();
+        MetricsStore.sDisabled = false;
+    }
+
+    @Test
+    public void randomWindows_registryAndHeapStayBounded() {
+        long seed = Long.getLong("soak.seed", DEFAULT_SEED);
+        Random random = new Random(seed);
+        String message = "seed " + seed;
+        BarUtils.init(RuntimeEnvironment.application);
+        // 预热：加载类、填充尺寸缓存，之后再记录堆内存基线
+        soak(random, ITERATIONS / 10, message);
+        destroyAll();
+        assertEquals(message, 0, BarUtils.getRegisteredWindowCount());
+        long baseline = usedHeap();
+        // 浸泡
+        soak(random, ITERATIONS, message);
+        destroyAll();
+        assertEquals(message, 0, BarUtils.getRegisteredWindowCount());
+        assertEquals(message, 0, BarUtils.getRetainedBytes());
+        long growth = usedHeap() - baseline;
+        long tolerance = Math.max(MAX_HEAP_GROWTH, baseline / MAX_HEAP_GROWTH_RATIO);
+        assertTrue(message + ", heap grew " + growth + " bytes from " + baseline,
+                growth <= tolerance);
+    }
+
+    /**
+     * 随机操作
+     */
+    private void soak(@NonNull Random random, int iterations, @NonNull String message) {
+        for (int i = 1; i <= iterations; i++) {
+            int action = random.nextInt(10);
+            if (mHosts.isEmpty() || (action < 3 && mHosts.size() < MAX_LIVE_ACTIVITIES)) {
+                create(random);
+            } else if (action < 5) {
+                destroy(random.nextInt(mHosts.size()));
+            } else if (action < 7) {
+                showDialog(random, mHosts.get(random.nextInt(mHosts.size())));
+            } else {
+                Host host = mHosts.get(random.nextInt(mHosts.size()));
+                callApi(random, host.mActivity.getWindow(), host.mActivity, host.mRootView);
+            }
+            if (i % CHECK_INTERVAL == 0) {
+                drain();
+                assertBounded(message + ", iteration " + i);
+            }
+        }
+    }
+
+    /**
+     * 创建Activity并调用一次公开方法
+     */
+    private void create(@NonNull Random random) {
+        ActivityController<Activity> controller = Robolectric.buildActivity(Activity.class).setup();
+        Activity activity = controller.get();
+        FrameLayout rootView = new FrameLayout(activity);
+        activity.setContentView(rootView);
+        Host host = new Host(controller, rootView);
+        mHosts.add(host);
+        callApi(random, activity.getWindow(), activity, rootView);
+    }
+
+    /**
+     * 销毁Activity
+     */
+    private void destroy(int index) {
+        Host host = mHosts.remove(index);
+        host.mController.pause().stop().destroy();
+    }
+
+    /**
+     * 销毁所有Activity
+     */
+    private void destroyAll() {
+        while (!mHosts.isEmpty()) {
+            destroy(mHosts.size() - 1);
+        }
+        drain();
+    }
+
+    /**
+     * 显示对话框，调用公开方法后关闭
+     */
+    private void showDialog(@NonNull Random random, @NonNull Host host) {
+        Dialog dialog = new Dialog(host.mActivity);
+        FrameLayout rootView = new FrameLayout(host.mActivity);
+        dialog.setContentView(rootView);
+        dialog.show();
+        Window window = dialog.getWindow();
+        if (random.nextBoolean()) {
+            BarUtils.inheritSystemBarColor(dialog);
+        } else {
+            BarUtils.setSystemBarColor(dialog, true, true, random.nextBoolean(), true, true, randomColor(random), 255);
+        }
+        if (null != window) {
+            callApi(random, window, null, rootView);
+        }
+        dialog.dismiss();
+        if (null != window) {
+            mDismissed.add(new WeakReference<>(window));
+        }
+    }
+
+    /**
+     * 随机调用公开方法
+     * （状态栏图标自适应依赖PixelCopy与硬件绘制，布局归因只用于调试，Robolectric中不调用）
+     *
+     * @param activity 活动（对话框时为空）
+     */
+    private void callApi(@NonNull Random random,
+                         @NonNull Window window,
+                         Activity activity,
+                         @NonNull ViewGroup rootView) {
+        int color = randomColor(random);
+        boolean isBlack = random.nextBoolean();
+        switch (random.nextInt(18)) {
+            case 0:
+                BarUtils.setSystemBarColor(window, rootView, true, true, isBlack, true, true, color, random.nextInt(256));
+                break;
+            case 1:
+                BarUtils.setSystemBarColor(window, rootView, isBlack, color);
+                break;
+            case 2:
+                BarUtils.setSystemBarColorAuto(window, rootView, true, random.nextBoolean(), true, true, color, 255);
+                break;
+            case 3:
+                BarUtils.setTranslucent(window, rootView);
+                break;
+            case 4:
+                BarUtils.setTransparent(window, rootView);
+                break;
+            case 5:
+                StatusBarUtils.setColor(window, rootView, isBlack, color);
+                break;
+            case 6:
+                NavBarUtils.setColor(window, rootView, isBlack, color);
+                break;
+            case 7:
+                BarUtils.setStatusBarGradient(window, rootView, isBlack, true, true, new int[]{color, Color.TRANSPARENT});
+                break;
+            case 8:
+                BarUtils.setStatusBarDrawable(window, rootView, isBlack, true, true, new ColorDrawable(color));
+                break;
+            case 9:
+                BarUtils.clearStatusBarBackground(window);
+                break;
+            case 10:
+                BarUtils.setDayNightSystemBarColor(window, rootView, true, true, true, true,
+                        true, Color.WHITE, 255, false, Color.BLACK, 255);
+                break;
+            case 11:
+                BarUtils.requestSystemBarColor(window, isBlack, color);
+                break;
+            case 12:
+                BarUtils.applyPreset(window, rootView,
+                        BarState.pack(true, true, true, isBlack, false, true, true), color);
+                break;
+            case 13:
+                BarUtils.setWatchdogEnabled(window, random.nextBoolean());
+                break;
+            case 14:
+                BarUtils.addOnSystemBarChangeListener(window, LISTENER);
+                break;
+            case 15:
+                BarUtils.onConfigurationChanged(window);
+                BarUtils.getStatusBarHeight(window);
+                BarUtils.getNavBarHeight(window);
+                BarUtils.getTopInset(window);
+                BarUtils.hasNavigationBar(window);
+                break;
+            case 16:
+                BarUtils.setAllSystemBarColorAuto(color, 255);
+                break;
+            default:
+                trackList(random, window, rootView);
+                break;
+        }
+        // Activity级别的重载
+        if (null != activity && random.nextInt(4) == 0) {
+            BarUtils.setSystemBarColor(activity, color);
+        }
+    }
+
+    /**
+     * 状态栏颜色跟随列表，随后可能停止跟随
+     */
+    private void trackList(@NonNull Random random, @NonNull Window window, @NonNull ViewGroup rootView) {
+        Context context = rootView.getContext();
+        RecyclerView recyclerView = new RecyclerView(context);
+        recyclerView.setLayoutManager(new LinearLayoutManager(context));
+        recyclerView.setAdapter(new ColorAdapter());
+        rootView.removeAllViews();
+        rootView.addView(recyclerView, new ViewGroup.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        RecyclerBarUtils.trackStatusBarColor(window, recyclerView, random.nextBoolean());
+        recyclerView.scrollBy(0, random.nextInt(2000));
+        if (random.nextBoolean()) {
+            RecyclerBarUtils.stopTrackingStatusBarColor(window);
+        }
+    }
+
+    /**
+     * 检查关闭的对话框窗口GC后被回收，且注册的窗口数量不超过存活的Activity数量
+     */
+    private void assertBounded(@NonNull String message) {
+        collectDismissed();
+        for (int i = 0, size = mDismissed.size(); i < size; i++) {
+            assertNull(message + ", dismissed dialog window leaked", mDismissed.get(i).get());
+        }
+        mDismissed.clear();
+        int windows = mHosts.size();
+        int registered = BarUtils.getRegisteredWindowCount();
+        assertTrue(message + ", registered " + registered + " > live " + windows, registered <= windows);
+    }
+
+    /**
+     * 反复GC直到关闭的对话框窗口都被回收（最多{@link #MAX_GC_ROUNDS}次）
+     */
+    private void collectDismissed() {
+        for (int i = 0; i < MAX_GC_ROUNDS; i++) {
+            boolean collected = true;
+            for (int j = 0, size = mDismissed.size(); j < size && collected; j++) {
+                collected = null == mDismissed.get(j).get();
+            }
+            if (collected) {
+                return;
+            }
+            System.gc();
+            System.runFinalization();
+        }
+    }
+
+    /**
+     * 执行主线程中等待的任务（包括下一帧与延迟的检查）
+     */
+    private static void drain() {
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    }
+
+    /**
+     * GC后已使用的堆内存（反复GC直到不再减少）
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < MAX_GC_ROUNDS; i++) {
+            System.gc();
+            System.runFinalization();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            long current = runtime.totalMemory() - runtime.freeMemory();
+            if (current >= used) {
+                return used;
+            }
+            used = current;
+        }
+        return used;
+    }
+
+    private static int randomColor(@NonNull Random random) {
+        return 0xff000000 | random.nextInt(0x1000000);
+    }
+
+    // 不持有窗口的系统栏状态监听
+    private static final BarUtils.OnSystemBarChangeListener LISTENER = new BarUtils.OnSystemBarChangeListener() {
+        @Override
+        public void onSystemBarChanged(@NonNull Window window,
+                                       int statusBarHeight,
+                                       int statusBarColor,
+                                       boolean statusBarVisible,
+                                       int navBarHeight,
+                                       int navBarColor,
+                                       boolean navBarVisible) {
+        }
+    };
+
+    /**
+     * 存活的Activity
+     */
+    private static final class Host {
+        final ActivityController<Activity> mController;
+        final Activity mActivity;
+        final FrameLayout mRootView;
+
+        Host(@NonNull ActivityController<Activity> controller, @NonNull FrameLayout rootView) {
+            mController = controller;
+            mActivity = controller.get();
+            mRootView = rootView;
+        }
+    }
+
+    /**
+     * 提供状态栏颜色的列表适配器
+     */
+    private static final class ColorAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder>
+            implements RecyclerBarUtils.StatusBarColorProvider {
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            View view = new View(parent.getContext());
+            view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 100));
+            return new RecyclerView.ViewHolder(view) {
+            };
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+            holder.itemView.setBackgroundColor(getStatusBarColor(position));
+        }
+
+        @Override
+        public int getItemCount() {
+            return 200;
+        }
+
+        @Override
+        public int getStatusBarColor(int position) {
+            return (position / 10) % 2 == 0 ? Color.RED : Color.BLUE;
+        }
+    }
+}
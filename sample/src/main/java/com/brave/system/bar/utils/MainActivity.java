@@ -1,6 +1,7 @@
 package com.brave.system.bar.utils;
 
 import android.app.Activity;
+import android.content.Intent;
 import android.graphics.Color;
 import android.os.Bundle;
 import android.util.Log;
@@ -20,6 +21,8 @@ public class MainActivity extends AppCompatActivity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
+        // 首次调用包含类加载与校验的耗时（冷启动时查看）
+        long start = System.nanoTime();
         BarUtils.setSystemBarColor(this,
                 true,
                 true,
@@ -28,10 +31,17 @@ public class MainActivity extends AppCompatActivity {
                 true,
                 Color.BLUE,
                 255);
+        Log.d(TAG, "onCreate: first setSystemBarColor " + (System.nanoTime() - start) / 1000 + "us");
         BarUtils.setTransparent(this);
         StatusBarUtils.setTranslucent(this);
         NavBarUtils.setTranslucent(this);
         setRootView(this);
+        findViewById(R.id.stress).setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                startActivity(new Intent(MainActivity.this, StressActivity.class));
+            }
+        });
     }
 
     /**
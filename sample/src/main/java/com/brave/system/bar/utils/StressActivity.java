@@ -0,0 +1,321 @@
+package com.brave.system.bar.utils;
+
+import android.animation.ValueAnimator;
+import android.annotation.TargetApi;
+import android.graphics.Color;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.view.FrameMetrics;
+import android.view.View;
+import android.view.ViewTreeObserver;
+import android.view.Window;
+import android.widget.LinearLayout;
+import android.widget.RadioGroup;
+import android.widget.ScrollView;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.brave.system.bar.library.BarUtils;
+import com.brave.system.bar.library.NavBarUtils;
+import com.brave.system.bar.library.StatusBarUtils;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * <pre>
+ *     <b>author</b>    ：BraveTou
+ *     <b>blog</b>      ：https://blog.csdn.net/bravetou
+ *     <b>time</b>      ：2026/10/19 20:30
+ *     <b>desc</b>      ：<pre>
+ *         系统栏压力测试，
+ *         快速滚动与颜色动画每帧改变系统栏颜色、透明度与图标模式，
+ *         通过FrameMetrics（Android 7.0 +）统计布局测量、绘制与整帧耗时的分位数，
+ *         用于比较不同设置方式的性能
+ *     </pre>
+ * </pre>
+ */
+public class StressActivity extends AppCompatActivity {
+    // 记录的帧数
+    private static final int CAPACITY = 4096;
+    // 一帧的时间（纳秒，60Hz）
+    private static final long FRAME_NANOS = 16_666_667L;
+    // 起始颜色
+    private static final int COLOR_START = 0xFF0D47A1;
+    // 结束颜色
+    private static final int COLOR_END = 0xFFFFEB3B;
+
+    // 布局测量耗时（纳秒，环形记录）
+    private final long[] mLayout = new long[CAPACITY];
+    // 绘制耗时（纳秒，环形记录）
+    private final long[] mDraw = new long[CAPACITY];
+    // 整帧耗时（纳秒，环形记录）
+    private final long[] mTotal = new long[CAPACITY];
+    // 排序用的副本
+    private final long[] mSorted = new long[CAPACITY];
+    // 已记录的帧数（在统计线程中写，主线程读）
+    private volatile int mCount;
+    // 主线程
+    private final Handler mMain = new Handler(Looper.getMainLooper());
+    // 统计线程
+    private HandlerThread mMetricsThread;
+    // 帧统计监听
+    private Object mMetricsListener;
+    // 统计显示
+    private TextView mReport;
+    // 滚动容器
+    private ScrollView mScrollView;
+    // 当前设置方式
+    private int mMode = R.id.mode_color;
+    // 当前动画
+    private ValueAnimator mAnimator;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_stress);
+        mReport = findViewById(R.id.report);
+        mScrollView = findViewById(R.id.content);
+        // 填充足够长的滚动内容
+        LinearLayout items = findViewById(R.id.items);
+        for (int i = 0; i < 200; i++) {
+            TextView item = new TextView(this);
+            item.setPadding(32, 32, 32, 32);
+            item.setText("Item " + i);
+            item.setTextColor(Color.BLACK);
+            items.addView(item);
+        }
+        ((RadioGroup) findViewById(R.id.mode)).setOnCheckedChangeListener(new RadioGroup.OnCheckedChangeListener() {
+            @Override
+            public void onCheckedChanged(RadioGroup group, int checkedId) {
+                mMode = checkedId;
+                reset();
+            }
+        });
+        // 滚动时根据滚动位置改变系统栏
+        mScrollView.getViewTreeObserver().addOnScrollChangedListener(new ViewTreeObserver.OnScrollChangedListener() {
+            @Override
+            public void onScrollChanged() {
+                int range = mScrollView.getChildAt(0).getHeight() - mScrollView.getHeight();
+                if (range > 0) {
+                    apply((float) mScrollView.getScrollY() / range);
+                }
+            }
+        });
+        findViewById(R.id.scroll).setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                startScroll();
+            }
+        });
+        findViewById(R.id.animate).setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                startColorAnimation();
+            }
+        });
+        findViewById(R.id.reset).setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                reset();
+            }
+        });
+        apply(0);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            startMetrics();
+            mMain.post(mUpdateReport);
+        } else {
+            mReport.setText("FrameMetrics需要Android 7.0以上");
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        mMain.removeCallbacks(mUpdateReport);
+        if (null != mAnimator) {
+            mAnimator.cancel();
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            stopMetrics();
+        }
+    }
+
+    /**
+     * 按当前设置方式改变系统栏
+     *
+     * @param fraction 进度[0,1]
+     */
+    private void apply(float fraction) {
+        fraction = Math.max(0, Math.min(1, fraction));
+        int color = blend(COLOR_START, COLOR_END, fraction);
+        int alpha = 128 + (int) (127 * fraction);
+        boolean isBlack = fraction > 0.5f;
+        if (mMode == R.id.mode_auto) {
+            BarUtils.setSystemBarColorAuto(this, color, alpha);
+        } else if (mMode == R.id.mode_status) {
+            StatusBarUtils.setColor(this, isBlack, color);
+        } else if (mMode == R.id.mode_nav) {
+            NavBarUtils.setColor(this, isBlack, color);
+        } else {
+            BarUtils.setSystemBarColor(this, true, true, isBlack, true, true, color, alpha);
+        }
+    }
+
+    /**
+     * 快速来回滚动
+     */
+    private void startScroll() {
+        final int range = mScrollView.getChildAt(0).getHeight() - mScrollView.getHeight();
+        if (range <= 0) {
+            return;
+        }
+        start(new ValueAnimator.AnimatorUpdateListener() {
+            @Override
+            public void onAnimationUpdate(ValueAnimator animation) {
+                mScrollView.scrollTo(0, (int) (range * animation.getAnimatedFraction()));
+            }
+        });
+    }
+
+    /**
+     * 不滚动，只用动画改变系统栏
+     */
+    private void startColorAnimation() {
+        start(new ValueAnimator.AnimatorUpdateListener() {
+            @Override
+            public void onAnimationUpdate(ValueAnimator animation) {
+                apply(animation.getAnimatedFraction());
+            }
+        });
+    }
+
+    /**
+     * 开始动画（来回5次，每次1秒）
+     */
+    private void start(ValueAnimator.AnimatorUpdateListener listener) {
+        if (null != mAnimator) {
+            mAnimator.cancel();
+        }
+        mAnimator = ValueAnimator.ofFloat(0, 1);
+        mAnimator.setDuration(1000);
+        mAnimator.setRepeatCount(9);
+        mAnimator.setRepeatMode(ValueAnimator.REVERSE);
+        mAnimator.addUpdateListener(listener);
+        mAnimator.start();
+    }
+
+    /**
+     * 清空统计
+     */
+    private void reset() {
+        mCount = 0;
+    }
+
+    /**
+     * 开始记录帧耗时
+     */
+    @TargetApi(Build.VERSION_CODES.N)
+    private void startMetrics() {
+        mMetricsThread = new HandlerThread("FrameMetrics");
+        mMetricsThread.start();
+        Window.OnFrameMetricsAvailableListener listener = new Window.OnFrameMetricsAvailableListener() {
+            @Override
+            public void onFrameMetricsAvailable(Window window, FrameMetrics frameMetrics, int dropCountSinceLastInvocation) {
+                int index = mCount % CAPACITY;
+                mLayout[index] = frameMetrics.getMetric(FrameMetrics.LAYOUT_MEASURE_DURATION);
+                mDraw[index] = frameMetrics.getMetric(FrameMetrics.DRAW_DURATION);
+                mTotal[index] = frameMetrics.getMetric(FrameMetrics.TOTAL_DURATION);
+                mCount++;
+            }
+        };
+        mMetricsListener = listener;
+        getWindow().addOnFrameMetricsAvailableListener(listener, new Handler(mMetricsThread.getLooper()));
+    }
+
+    /**
+     * 停止记录帧耗时
+     */
+    @TargetApi(Build.VERSION_CODES.N)
+    private void stopMetrics() {
+        if (null != mMetricsListener) {
+            getWindow().removeOnFrameMetricsAvailableListener(
+                    (Window.OnFrameMetricsAvailableListener) mMetricsListener);
+            mMetricsListener = null;
+        }
+        if (null != mMetricsThread) {
+            mMetricsThread.quit();
+            mMetricsThread = null;
+        }
+    }
+
+    // 每秒更新一次统计
+    private final Runnable mUpdateReport = new Runnable() {
+        @Override
+        public void run() {
+            int count = Math.min(mCount, CAPACITY);
+            if (count > 0) {
+                mReport.setText(String.format(Locale.US,
+                        "frames %d  jank %d\n%s\n%s\n%s",
+                        count,
+                        countOver(mTotal, count, FRAME_NANOS),
+                        line("layout", mLayout, count),
+                        line("draw  ", mDraw, count),
+                        line("total ", mTotal, count)));
+            } else {
+                mReport.setText("滚动或开始动画后显示统计");
+            }
+            mMain.postDelayed(this, 1000);
+        }
+    };
+
+    /**
+     * 一行分位数统计（毫秒）
+     */
+    private String line(String name, long[] values, int count) {
+        System.arraycopy(values, 0, mSorted, 0, count);
+        Arrays.sort(mSorted, 0, count);
+        return String.format(Locale.US, "%s p50 %5.2f  p90 %5.2f  p95 %5.2f  p99 %5.2f ms",
+                name,
+                percentile(count, 0.50f),
+                percentile(count, 0.90f),
+                percentile(count, 0.95f),
+                percentile(count, 0.99f));
+    }
+
+    /**
+     * 已排序副本的分位数（毫秒）
+     */
+    private float percentile(int count, float p) {
+        int index = Math.min(count - 1, (int) (p * count));
+        return mSorted[index] / 1_000_000f;
+    }
+
+    /**
+     * 超过阈值的帧数
+     */
+    private static int countOver(long[] values, int count, long threshold) {
+        int over = 0;
+        for (int i = 0; i < count; i++) {
+            if (values[i] > threshold) {
+                over++;
+            }
+        }
+        return over;
+    }
+
+    /**
+     * 混合两个颜色
+     */
+    private static int blend(int from, int to, float fraction) {
+        int a = (int) (Color.alpha(from) + (Color.alpha(to) - Color.alpha(from)) * fraction);
+        int r = (int) (Color.red(from) + (Color.red(to) - Color.red(from)) * fraction);
+        int g = (int) (Color.green(from) + (Color.green(to) - Color.green(from)) * fraction);
+        int b = (int) (Color.blue(from) + (Color.blue(to) - Color.blue(from)) * fraction);
+        return Color.argb(a, r, g, b);
+    }
+}